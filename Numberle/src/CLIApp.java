@@ -31,18 +31,18 @@ public class CLIApp {
                 ----------------------------------------
                 What you need to do is to find
                 a hidden mathematical equation
-                through at most 6 guesses.
+                through at most %d guesses.
                 After each guess,
                 some feedback will be provided to
                 help you gradually narrow down the scope.
                 Let's start!
-                ----------------------------------------""");
+                ----------------------------------------""".formatted(INumberleModel.MAX_ATTEMPTS));
 
         model.startNewGame(); // Initialize a new game using the game model.
 
         while (!model.isGameOver()) {
             // Prompt the user for their guess and process it
-            System.out.println("You have " + model.getRemainingAttempts()+"/6 attempts remained");
+            System.out.println("You have " + model.getRemainingAttempts()+"/" + INumberleModel.MAX_ATTEMPTS + " attempts remained");
             System.out.print("Enter your guess: ");
             String guess = scanner.nextLine();
 
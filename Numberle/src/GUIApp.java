@@ -14,6 +14,7 @@ public class GUIApp {
      * @param args The command-line arguments.
      */
     public static void main(String[] args) {
+        IconCache.preload(NumberleView.ICON_SIZE); // Decode and scale the button images in the background while the game loads
         SwingUtilities.invokeLater(
                 GUIApp::createAndShowGUI
         );
@@ -1,17 +1,25 @@
 // INumberleModel.java
 
 //Import necessary classes
+import com.mobaijun.engine.BoardConfig;
+import java.util.Iterator;
 import java.util.Set;
 
 /**
  *The INumberleModel interface defines the basic behavior of the Numberle game model.
+ * <p>
+ * The module builds on the engine classes of the root project (com.mobaijun.engine): Numberle.iml
+ * depends on the april-numberle module, which IntelliJ imports from the root pom.xml, so the
+ * engine is compiled with this module and changes to it are picked up on the next build.
  */
 public interface INumberleModel {
-    int MAX_ATTEMPTS = 6; // Maximum number of attempts in the game
-    int EQUATION_LENGTH = 7; // Length of the number puzzle
-    String GUESS_EQUATIONS_FILE = "equations.txt"; // File name to store guessed equations
+    BoardConfig BOARD = BoardConfig.DEFAULT; // Board picked with -Dnumberle.board: mini (5), classic (7) or maxi (10-12)
+    int MAX_ATTEMPTS = BOARD.attempts(); // Maximum number of attempts in the game
+    int EQUATION_LENGTH = BOARD.length(); // Length of the number puzzle
+    String GUESS_EQUATIONS_FILE = "equations.txt"; // File name to store guessed equations, used by classic boards
     boolean FLAG_SHOW_ERROR_EQUATION = true; // Whether to show incorrect equations
     boolean FLAG_RANDOM_SELECT = true; // Whether to select equations randomly
+    boolean FLAG_VALIDITY_BITMAP = true; // Whether to validate with the precomputed validity bitmap (takes precedence over the evaluator)
 
     /**
      * Initializes the game model.
@@ -66,6 +74,27 @@ public interface INumberleModel {
      */
     void startNewGame();
 
+    /**
+     * Suggests the next guess from the guesses and feedback of the current game.
+     *
+     * @return the suggested equation, or null if no known equation fits the feedback
+     */
+    String getHint();
+
+    /**
+     * Counts the equations still consistent with the guesses of the current game.
+     *
+     * @return the number of remaining possible answers
+     */
+    int getRemainingCount();
+
+    /**
+     * Iterates over the equations still consistent with the guesses of the current game.
+     *
+     * @return the remaining possible answers; no guess may be processed while iterating
+     */
+    Iterator<String> getRemainingEquations();
+
     /**
      * Gets the set of grey letters.
      *
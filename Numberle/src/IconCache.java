@@ -0,0 +1,106 @@
+// IconCache.java
+
+//Import necessary classes
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide cache of the keyboard button icons.
+ * Each PNG is decoded once, on a background thread, and each size it is shown at is scaled once;
+ * every view and every new game then reuses the same icons.
+ */
+public final class IconCache {
+    public static final String DIRECTORY = "./resources/buttons/"; // Directory of the button images, relative to Numberle/
+
+    // Names of every button image, without the ".png" extension
+    private static final String[] NAMES = { "0", "1", "2", "3", "4", "5", "6", "7", "8", "9",
+            "+", "-", "×", "÷", "=", "◀——", "Enter" };
+
+    private static final ExecutorService DECODER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "icon-decoder"); // Decoding must never keep the application alive
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Map<String, CompletableFuture<BufferedImage>> IMAGES = new ConcurrentHashMap<>(); // Decoded images by name
+    private static final Map<String, ImageIcon> ICONS = new ConcurrentHashMap<>(); // Scaled icons by "name@size"
+
+    private IconCache() {
+    }
+
+    /**
+     * Starts decoding every button image in the background and scales them to the given sizes,
+     * so the first frame finds them ready. Returns immediately.
+     *
+     * @param sizes The icon sizes (in pixels) to prepare.
+     */
+    public static void preload(int... sizes) {
+        for (String name : NAMES) {
+            CompletableFuture<BufferedImage> image = image(name);
+            for (int size : sizes) {
+                image.thenRunAsync(() -> icon(name, size), DECODER);
+            }
+        }
+    }
+
+    /**
+     * Gets the icon of a button scaled to a square of the given size.
+     * Waits for the image only if it has not been decoded yet.
+     *
+     * @param name The name of the image, without the ".png" extension.
+     * @param size The width and height of the icon in pixels.
+     * @return The shared scaled icon, or null if the image could not be loaded.
+     */
+    public static ImageIcon icon(String name, int size) {
+        String key = name + '@' + size;
+        ImageIcon icon = ICONS.get(key);
+        if (icon != null) {
+            return icon;
+        }
+        BufferedImage image = image(name).join();
+        if (image == null) {
+            return null; // The image is missing or unreadable, which was reported when it was decoded
+        }
+        return ICONS.computeIfAbsent(key, k -> new ImageIcon(scale(image, size)));
+    }
+
+    private static CompletableFuture<BufferedImage> image(String name) {
+        return IMAGES.computeIfAbsent(name, n -> CompletableFuture.supplyAsync(() -> decode(n), DECODER));
+    }
+
+    private static BufferedImage decode(String name) {
+        String path = DIRECTORY + name + ".png";
+        try {
+            BufferedImage image = ImageIO.read(new File(path));
+            if (image == null) {
+                throw new IOException("Failed to load image at " + path); // No reader for the file
+            }
+            return image;
+        } catch (IOException e) {
+            System.err.println("Error loading image: " + e.getMessage()); // Print an error message if there was an exception
+            return null;
+        }
+    }
+
+    /**
+     * Scales an image eagerly; Image.getScaledInstance would redo the filtering lazily for every new icon.
+     */
+    private static BufferedImage scale(BufferedImage image, int size) {
+        BufferedImage scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(image, 0, 0, size, size, null);
+        graphics.dispose();
+        return scaled;
+    }
+}
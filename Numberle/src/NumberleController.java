@@ -83,4 +83,13 @@ public class NumberleController {
     public void startNewGame() {
         model.startNewGame();
     }
+
+    /**
+     * Gets a suggestion for the next guess.
+     *
+     * @return The suggested equation, or null if none fits the feedback so far.
+     */
+    public String getHint() {
+        return model.getHint();
+    }
 }
\ No newline at end of file
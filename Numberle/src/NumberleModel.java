@@ -1,6 +1,13 @@
 // NumberleModel.java
-import java.io.File;
-import java.io.FileNotFoundException;
+import com.mobaijun.engine.BoardConfig;
+import com.mobaijun.engine.CandidateSet;
+import com.mobaijun.engine.CorpusCache;
+import com.mobaijun.engine.EquationValidator;
+import com.mobaijun.engine.ExpressionEvaluator;
+import com.mobaijun.engine.FeedbackScorer;
+import com.mobaijun.engine.GameCorpus;
+import com.mobaijun.engine.Symbols;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -8,34 +15,51 @@ import java.util.*;
  */
 public class NumberleModel extends Observable implements INumberleModel {
     private String targetNumber;               // The target number that the player needs to guess
+    private long targetPacked;                 // The target number packed four bits per symbol for the shared scorer
     private StringBuilder currentGuess;        // The current guess made by the player
     private int remainingAttempts;             // The number of remaining attempts for the player
     private boolean gameWon;                   // Indicates whether the game has been won
 
-    private final Set<String> greyLetters = new HashSet<>();    // Set of characters that are not in the target number
-    private final Set<String> yellowLetters = new HashSet<>();  // Set of characters that are in the target number but not in the correct position
-    private final Set<String> greenLetters = new HashSet<>();   // Set of characters that are in the correct position
+    private static final int KEY_UNKNOWN = 0, KEY_GREY = 1, KEY_YELLOW = 2, KEY_GREEN = 3;   // Keyboard states, in order of precedence
+    private int keyStates;                     // Keyboard state of every symbol, 2 bits per symbol code
+    private final Set<String> greyLetters = new KeyStateView(KEY_GREY);       // Set of characters that are not in the target number
+    private final Set<String> yellowLetters = new KeyStateView(KEY_YELLOW);   // Set of characters that are in the target number but not in the correct position
+    private final Set<String> greenLetters = new KeyStateView(KEY_GREEN);     // Set of characters that are in the correct position
     public char symbolMatched = '√';             // Symbol to represent a character that is in the correct position
     public char symbolNotInThePlace = '?';       // Symbol to represent a character that is in the target number but not in the correct position
     public char symbolNotExist = '×';            // Symbol to represent a character that is not in the target number
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator(); // Evaluator reused for every validation
+    private final EquationValidator validity = FLAG_VALIDITY_BITMAP ? BOARD.newValidator() : null; // Shared bitmap of every valid equation, evaluation on maxi boards
+    private GameCorpus corpus;                 // Snapshot of the shared corpus this game was started with
+    private CandidateSet candidates;           // Equations still consistent with the guesses of the current game
 
     /**
      * Initializes the game with default settings.
      */
     @Override
     public void initialize() {
+        GameCorpus latest = EQUATION_LENGTH == BoardConfig.CLASSIC.length()
+                ? CorpusCache.get(Path.of(GUESS_EQUATIONS_FILE), EQUATION_LENGTH)   // Loaded once per process, no I/O here
+                : CorpusCache.get(BOARD);   // Other boards have no file, their corpus is generated once per process
+        if (latest != corpus) {
+            // First game, or the file was reloaded since the last one
+            corpus = latest;
+            candidates = corpus.getIndex().newSet();
+        }
         if (!FLAG_RANDOM_SELECT) {
             targetNumber = "6+4=2*5";   // Default target number if random selection is disabled
         } else {
-            Set<String> equations = readFile();
             Random rand = new Random();
-            int index = rand.nextInt(equations.size());
-            targetNumber = new ArrayList<>(equations).get(index);   // Randomly selects a target number from the set of equations
+            int index = rand.nextInt(corpus.size());
+            targetNumber = corpus.getEquations().get(index);   // Randomly selects a target number from the equations
         }
 
-        currentGuess = new StringBuilder("       ");   // Initializes the current guess with spaces
+        targetPacked = Symbols.pack(targetNumber);   // Packs the target once per game for scoring
+        currentGuess = new StringBuilder(" ".repeat(EQUATION_LENGTH));   // Initializes the current guess with spaces
         remainingAttempts = MAX_ATTEMPTS;   // Sets the remaining attempts to the maximum allowed
         gameWon = false;   // Initializes the game as not won
+        candidates.reset();   // Every equation is possible again
+        keyStates = 0;   // Every key is unknown again
         setChanged();
         notifyObservers();
 
@@ -55,24 +79,28 @@ public class NumberleModel extends Observable implements INumberleModel {
             }
         }
 
-        char[] targetArray = targetNumber.toCharArray();
+        // One duplicate-aware pass of the shared scorer; each base-3 digit is the state of one position
+        long guess = Symbols.pack(input);
+        int pattern = FeedbackScorer.score(guess, targetPacked, EQUATION_LENGTH);
+        candidates.narrow(guess, pattern);   // Drops the answers this feedback rules out
         char[] inputArray = input.toCharArray();
 
-        for (int i = 0; i < targetArray.length; i++) {
-            if (targetArray[i] == inputArray[i]) {
+        for (int i = 0; i < EQUATION_LENGTH; i++) {
+            int state = FeedbackScorer.stateAt(pattern, i);
+            if (state == FeedbackScorer.GREEN) {
                 currentGuess.setCharAt(i, symbolMatched);   // Sets the symbol for a character in the correct position
-                greenLetters.add(String.valueOf(inputArray[i]));   // Adds the character to the set of characters in the correct position
-            } else if (targetNumber.contains(String.valueOf(inputArray[i]))) {
+                markKey(inputArray[i], KEY_GREEN);   // Marks the character as in the correct position
+            } else if (state == FeedbackScorer.YELLOW) {
                 currentGuess.setCharAt(i, symbolNotInThePlace);   // Sets the symbol for a character in the target number but not in the correct position
-                yellowLetters.add(String.valueOf(inputArray[i]));   // Adds the character to the set of characters not in the correct position
+                markKey(inputArray[i], KEY_YELLOW);   // Marks the character as not in the correct position, unless it is green
             } else {
                 currentGuess.setCharAt(i, symbolNotExist);   // Sets the symbol for a character not in the target number
-                greyLetters.add(String.valueOf(inputArray[i]));   // Adds the character to the set of characters not in the target number
+                markKey(inputArray[i], KEY_GREY);   // Marks the character as not in the target number, unless it is green or yellow
             }
         }
         remainingAttempts--;   // Decreases the remaining attempts
 
-        if (currentGuess.toString().equals("√".repeat(EQUATION_LENGTH))) {
+        if (pattern == FeedbackScorer.SOLVED) {
             gameWon = true;   // If the current guess matches the target number, the game is won
         }
         setChanged();
@@ -142,6 +170,48 @@ public class NumberleModel extends Observable implements INumberleModel {
         initialize();   // Starts a new game by reinitializing the model
     }
 
+    /**
+     * Suggests the guess expected to narrow down the remaining equations the most.
+     *
+     * @return The suggested equation, or null if none fits the feedback so far.
+     */
+    @Override
+    public String getHint() {
+        int id = corpus.getSolver().suggest(candidates.toArray());
+        return id < 0 ? null : corpus.getEquations().get(id);
+    }
+
+    /**
+     * Counts the equations still consistent with the guesses of the current game.
+     *
+     * @return The number of remaining possible answers.
+     */
+    @Override
+    public int getRemainingCount() {
+        return candidates.count();
+    }
+
+    /**
+     * Iterates over the equations still consistent with the guesses of the current game.
+     *
+     * @return The remaining possible answers.
+     */
+    @Override
+    public Iterator<String> getRemainingEquations() {
+        PrimitiveIterator.OfInt ids = candidates.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return corpus.getEquations().get(ids.nextInt());
+            }
+        };
+    }
+
     /**
      * Gets the set of grey letters in the current guess.
      *
@@ -173,138 +243,108 @@ public class NumberleModel extends Observable implements INumberleModel {
     }
 
     /**
-     * Reads equations from a file and returns them as a set of strings.
+     * Raises the keyboard state of a symbol; green beats yellow beats grey.
      *
-     * @return A set of equations read from a file.
+     * @param symbol The typed symbol.
+     * @param state  The state shown by the feedback.
      */
-    private Set<String> readFile() {
-        Set<String> result = new HashSet<>(); // Create a new HashSet to store the read equations.
-        try {
-            Scanner sc = new Scanner(new File(GUESS_EQUATIONS_FILE));// Create a new Scanner to read the file.
-            // Iterate over each line in the file.
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine().strip(); // Read the next line and remove leading/trailing whitespace.
-                if (!line.isEmpty()) { // Check if the line is not empty.
-                    result.add(line); // Add the non-empty line to the set of equations.
-                }
-            }
-        } catch (FileNotFoundException e) { // Handle the case where the file is not found.
-            e.printStackTrace(); // Print the error stack trace.
+    private void markKey(char symbol, int state) {
+        int code = Symbols.code(symbol);
+        if (code < 0) {
+            return;   // Not a board symbol
+        }
+        int shift = code * 2;
+        if (((keyStates >>> shift) & 3) < state) {
+            keyStates = keyStates & ~(3 << shift) | state << shift;
         }
-        return result; // Return the set of non-empty equations.
     }
 
     /**
-     * Checks if the provided equation is valid.
-     *
-     * @param equation The equation to validate.
-     * @return True if the equation is valid, otherwise false.
+     * Read-only view of the symbols whose keyboard state is one given state.
      */
-    private boolean validEquation(String equation) {
-        //If any of these conditions are not met, the method returns false.
-        // The equation must be exactly 7 characters long and contain the equals sign "=".
-        if (equation.length() != 7 || !equation.contains("=")) {
-            return false;
-        }
+    private final class KeyStateView extends AbstractSet<String> {
+        private final int state;
 
-        // The equation should not have "=" as the first or last character.
-        if (equation.charAt(0) == '=' || equation.charAt(6) == '=') {
-            return false;
+        KeyStateView(int state) {
+            this.state = state;
         }
 
-        String[] parts = equation.split("="); // Split the equation into two parts: left expression and right expression.
-        String leftExpression = parts[0]; // Extract the left expression.
-        String rightExpression = parts[1]; // Extract the right expression.
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof String s) || s.length() != 1) {
+                return false;
+            }
+            int code = Symbols.code(s.charAt(0));
+            return code >= 0 && code < Symbols.COUNT && ((keyStates >>> code * 2) & 3) == state;
+        }
 
-        System.out.println("----------------------------------------\n"+"Left Expression: " + leftExpression); // Print the left expression for debugging.
-        System.out.println("Right Expression: " + rightExpression); // Print the right expression for debugging.
+        @Override
+        public int size() {
+            int size = 0;
+            for (int code = 0; code < Symbols.COUNT; code++) {
+                if (((keyStates >>> code * 2) & 3) == state) {
+                    size++;
+                }
+            }
+            return size;
+        }
 
-        // Evaluate the left and right expressions and check if their values are equal.
-        return evaluateExpression(leftExpression) == evaluateExpression(rightExpression);
-    }
+        @Override
+        public Iterator<String> iterator() {
+            int states = keyStates;   // Snapshot, so the view can be iterated while the game goes on
+            return new Iterator<>() {
+                private int code = next(0);
 
-    /**
-     * Evaluates the value of a mathematical expression.
-     *
-     * @param expression The mathematical expression to evaluate.
-     * @return The evaluated value of the expression.
-     */
-    private int evaluateExpression(String expression) {
-        int result = 0; // Stores the final result of the expression.
-        int num = 0; // Stores the currently parsed number.
-        int prevNum = 0; // Stores the previous number in the expression.
-        char operator = '+'; // Stores the current operator.
-        char prevOperator = '+'; // Stores the previous operator.
-
-        for (int i = 0; i < expression.length(); i++) {
-            char c = expression.charAt(i); // Get the current character in the expression.
-
-            if (Character.isDigit(c)) { // Check if the character is a digit.
-                num = num * 10 + (c - '0'); // Accumulate the digit to form a number.
-            } else if (c == '+' || c == '-') { // Check if the character is an addition or subtraction operator.
-                // Apply the previous operator to the previous number.
-                if (prevOperator == '*') {
-                    prevNum *= num;
-                } else if (prevOperator == '/') {
-                    if (num == 0) {
-                        throw new ArithmeticException("Division by zero"); // Division by zero is not allowed.
+                private int next(int from) {
+                    while (from < Symbols.COUNT && ((states >>> from * 2) & 3) != state) {
+                        from++;
                     }
-                    prevNum /= num;
-                } else {
-                    prevNum = num;
+                    return from;
                 }
 
-                // Apply the current operator to the accumulated result.
-                if (operator == '+') {
-                    result += prevNum;
-                } else {
-                    result -= prevNum;
+                @Override
+                public boolean hasNext() {
+                    return code < Symbols.COUNT;
                 }
 
-                // Update the operators and reset the number.
-                operator = c;
-                prevOperator = '+';
-                num = 0;
-            } else if (c == '*' || c == '/') { // Check if the character is a multiplication or division operator.
-                // Apply the previous multiplication or division if any.
-                if (prevOperator == '*') {
-                    prevNum *= num;
-                } else if (prevOperator == '/') {
-                    if (num == 0) {
-                        throw new ArithmeticException("Division by zero"); // Division by zero is not allowed.
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
                     }
-                    prevNum /= num;
-                } else {
-                    prevNum = num;
+                    String symbol = String.valueOf(Symbols.symbol(code));
+                    code = next(code + 1);
+                    return symbol;
                 }
+            };
+        }
+    }
 
-                // Update the previous operator to the current one and reset the number.
-                prevOperator = c;
-                num = 0;
-            }
+    /**
+     * Checks if the provided equation is valid.
+     *
+     * @param equation The equation to validate.
+     * @return True if the equation is valid, otherwise false.
+     */
+    private boolean validEquation(String equation) {
+        //If any of these conditions are not met, the method returns false.
+        // The equation must fill a row of the board and contain the equals sign "=".
+        if (equation.length() != EQUATION_LENGTH || !equation.contains("=")) {
+            return false;
         }
 
-        // Apply the last number with the last operator
-        if (prevOperator == '*') {
-            prevNum *= num;
-        } else if (prevOperator == '/') {
-            if (num == 0) {
-                // Division by zero is not allowed.
-                throw new ArithmeticException("Division by zero");
-            }
-            prevNum /= num;
-        } else {
-            prevNum = num;
+        // The equation should not have "=" as the first or last character.
+        if (equation.charAt(0) == '=' || equation.charAt(EQUATION_LENGTH - 1) == '=') {
+            return false;
         }
 
-        // Apply the final result with the last operator
-        if (operator == '+') {
-            result += prevNum;
-        } else {
-            result -= prevNum;
+        if (FLAG_VALIDITY_BITMAP) {
+            // One lookup in the precomputed bitmap of valid equations, or one evaluation on maxi boards.
+            return validity.isValid(equation);
         }
 
-        return result; // Return the final result of the expression.
+        // Exact, allocation-free check: one "=", well-formed sides, equal values.
+        return evaluator.isBalanced(equation);
     }
 
 }
@@ -5,7 +5,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Observer;
 import java.util.Set;
@@ -24,10 +24,10 @@ public class NumberleView implements Observer {
     private JButton newGameButton; // Button to start a new game
     private KeyAdapter inputPanelKeyListener; // Key listener for keyboard input events in the input panel
 
-    public String numberImagePath = "./resources/buttons/"; // Path to the directory of image icons
-    public Map<Character, ImageIcon> numberIcons; // Map associating numbers with image icons
-    public Map<Character, ImageIcon> operatorIcons; // Map associating operators with image icons
-    private final int iconSize = 80; // Size (in pixels) of the image icons
+    public Map<Character, ImageIcon> numberIcons = new HashMap<>(); // Map associating numbers with image icons
+    public Map<Character, ImageIcon> operatorIcons = new HashMap<>(); // Map associating operators with image icons
+    public static final int ICON_SIZE = 80; // Size (in pixels) of the image icons
+    private final int iconSize = ICON_SIZE;
 
     /**
      * Constructs a NumberleView object.
@@ -42,49 +42,27 @@ public class NumberleView implements Observer {
         this.controller.startNewGame(); // Start a new game using the controller
         ((NumberleModel) this.model).addObserver(this); // Add this view as an observer to the model
 
+        loadImages(); // Look up the image icons for numbers and operators before the keyboard uses them
         initializeFrame(); // Initialize the game frame
 
         this.controller.setView(); // Set the view using the controller
         update((NumberleModel) this.model, null); // Update the view with the initial model state
-
-        loadImages(); // Load the image icons for numbers and operators
     }
 
 
     /**
-     * Loads the image icons for numbers and operators.
+     * Loads the image icons for numbers and operators from the shared {@link IconCache}, scaled to the icon size.
      */
     private void loadImages() {
-        // Load image icons for numbers '0' to '9'
+        // Icons for numbers '0' to '9'
         for (char c = '0'; c <= '9'; c++) {
-            numberIcons.put(c, new ImageIcon(numberImagePath + c + ".png"));
+            numberIcons.put(c, IconCache.icon(String.valueOf(c), iconSize));
         }
 
-        // Load image icons for operators '+', '-', '×', '÷', and '='
-        operatorIcons.put('+', new ImageIcon(numberImagePath + "+.png"));
-        operatorIcons.put('-', new ImageIcon(numberImagePath + "-.png"));
-        operatorIcons.put('×', new ImageIcon(numberImagePath + "×.png"));
-        operatorIcons.put('÷', new ImageIcon(numberImagePath + "÷.png"));
-        operatorIcons.put('=', new ImageIcon(numberImagePath + "=.png"));
-    }
-
-    /**
-     * Scales the provided icon to the specified icon size.
-     *
-     * @param icon The icon to be scaled.
-     * @return The scaled icon.
-     */
-    private ImageIcon scaleIcon(ImageIcon icon) {
-        if (icon != null) {
-            // Get the image from the icon and scale it using the specified icon size
-            Image scaledImage = icon.getImage().getScaledInstance(iconSize, iconSize, Image.SCALE_SMOOTH);
-
-            // Create and return a new ImageIcon with the scaled image
-            return new ImageIcon(scaledImage);
+        // Icons for operators '+', '-', '×', '÷', and '='
+        for (char c : new char[]{ '+', '-', '×', '÷', '=' }) {
+            operatorIcons.put(c, IconCache.icon(String.valueOf(c), iconSize));
         }
-
-        // Return null if the provided icon is null
-        return null;
     }
 
     /**
@@ -119,7 +97,7 @@ public class NumberleView implements Observer {
         // This method can achieve line wrapping of text
         attemptsLabel = new JLabel("<html>Welcome to<br> Numberle! "
                 + "<br><br> Attempts" + "<br> remaining: <br>"
-                + controller.getRemainingAttempts() + " / 6 </html>");
+                + controller.getRemainingAttempts() + " / " + INumberleModel.MAX_ATTEMPTS + " </html>");
 
         attemptsLabel.setFont(labelFont); // Set the font for the attempts label
         attemptsPanel.add(attemptsLabel); // Add the attempts label to the attempts panel
@@ -132,13 +110,13 @@ public class NumberleView implements Observer {
      */
     private void setInputPanel() {
         inputPanel = new JPanel(); // Create a new panel for the input area
-        inputPanel.setLayout(new GridLayout(6, 7)); // Set the layout manager for the input panel as a 6x7 grid
+        inputPanel.setLayout(new GridLayout(INumberleModel.MAX_ATTEMPTS, INumberleModel.EQUATION_LENGTH)); // One row per attempt, one column per symbol
 
-        Font labelFont = new Font("Axure handwriting", Font.BOLD, 40); // Create a custom font for the letter labels
+        Font labelFont = new Font("Axure handwriting", Font.BOLD, Math.min(40, 280 / INumberleModel.EQUATION_LENGTH)); // Create a custom font for the letter labels, smaller on maxi boards
 
-        letterLabels = new JLabel[42]; // Create an array of JLabels to store the letter labels
+        letterLabels = new JLabel[INumberleModel.BOARD.cells()]; // Create an array of JLabels to store the letter labels
 
-        for (int i = 0; i < 42; i++) {
+        for (int i = 0; i < letterLabels.length; i++) {
             JLabel label = new JLabel("", JLabel.CENTER); // Create a new JLabel with empty text, centered alignment
             label.setOpaque(true); // Set the label as opaque
             label.setBackground(Color.WHITE); // Set the background color of the label as white
@@ -167,7 +145,7 @@ public class NumberleView implements Observer {
         Character[] row1Letters = { '1', '2', '3', '4', '5', '6', '7', '8', '9', '0' }; // Define an array of characters for the first row of letters
 
         for (Character letter : row1Letters) {
-            ImageIcon icon = scaleIcon(loadImageIcon(numberImagePath + letter + ".png")); // Load the image icon for the current letter and scale it
+            ImageIcon icon = numberIcons.get(letter); // Get the scaled image icon for the current letter
             if (icon != null) {
                 CreateNewButtonWithIcon(row1Panel, letter, icon);
             }
@@ -178,7 +156,7 @@ public class NumberleView implements Observer {
         JPanel row2Panel = new JPanel(); // Create a new panel for the second row of letters
         row2Panel.setLayout(new GridLayout(1, 10)); // Set the layout manager for row2Panel as a 1x10 grid
 
-        JButton backspaceButton = new JButton(scaleIcon(loadImageIcon(numberImagePath + "◀——.png"))); // Create a backspace button with the backspace icon
+        JButton backspaceButton = new JButton(IconCache.icon("◀——", iconSize)); // Create a backspace button with the backspace icon
         if (backspaceButton.getIcon() != null) {
             backspaceButton.setPreferredSize(new Dimension(iconSize * 5, iconSize)); // Set the preferred size for the backspace button
             backspaceButton.setEnabled(true); // Enable the backspace button
@@ -196,7 +174,7 @@ public class NumberleView implements Observer {
         Character[] row2Letters = { '+', '-', '×', '÷', '=' }; // Define an array of characters for the second row of letters
 
         for (Character letter : row2Letters) {
-            ImageIcon icon = scaleIcon(loadImageIcon(numberImagePath + letter + ".png")); // Load the image icon for the current letter and scale it
+            ImageIcon icon = operatorIcons.get(letter); // Get the scaled image icon for the current letter
             if (icon != null && (letter == '+' || letter == '-' || letter == '=')) {
                 CreateNewButtonWithIcon(row2Panel, letter, icon);
             } else if (icon != null && (letter == '×')) {
@@ -218,7 +196,7 @@ public class NumberleView implements Observer {
             }
         }
 
-        JButton enterButton = new JButton(scaleIcon(loadImageIcon(numberImagePath + "Enter.png"))); // Create an enter button with the enter icon
+        JButton enterButton = new JButton(IconCache.icon("Enter", iconSize)); // Create an enter button with the enter icon
         if (enterButton.getIcon() != null) {
             enterButton.setPreferredSize(new Dimension(iconSize * 5, iconSize)); // Set the preferred size for the enter button
             enterButton.setEnabled(true); // Enable the enter button
@@ -247,25 +225,6 @@ public class NumberleView implements Observer {
         row1Panel.add(button); // Add the button to row1Panel
     }
 
-    /**
-     * Loads an image icon from the specified path.
-     *
-     * @param path The path to the image file.
-     * @return The loaded image icon, or null if there was an error.
-     */
-    private ImageIcon loadImageIcon(String path) {
-        try {
-            ImageIcon icon = new ImageIcon(path); // Create a new image icon using the specified path
-            if (icon.getImageLoadStatus() != MediaTracker.COMPLETE) { // Check if the image loading was successful
-                throw new IOException("Failed to load image at " + path); // Throw an exception if the image loading failed
-            }
-            return icon; // Return the loaded image icon
-        } catch (Exception e) {
-            System.err.println("Error loading image: " + e.getMessage()); // Print an error message if there was an exception
-            return null; // Return null to indicate that there was an error loading the image
-        }
-    }
-
     /**
      * Gets the current text entered by the player.
      *
@@ -273,9 +232,9 @@ public class NumberleView implements Observer {
      */
     private String getInputText() {
         int currentGuess = INumberleModel.MAX_ATTEMPTS - controller.getRemainingAttempts(); // Calculate the current guess number
-        int startRow = currentGuess % 6; // Calculate the starting row index for the current guess
-        int startIndex = startRow * 7; // Calculate the starting index in the letterLabels array for the current guess
-        int endIndex = startIndex + 7; // Calculate the ending index in the letterLabels array for the current guess
+        int startRow = currentGuess % INumberleModel.MAX_ATTEMPTS; // Calculate the starting row index for the current guess
+        int startIndex = startRow * INumberleModel.EQUATION_LENGTH; // Calculate the starting index in the letterLabels array for the current guess
+        int endIndex = startIndex + INumberleModel.EQUATION_LENGTH; // Calculate the ending index in the letterLabels array for the current guess
 
         StringBuilder sb = new StringBuilder(); // Create a StringBuilder to store the input text
         for (int i = startIndex; i < endIndex; i++) {
@@ -291,13 +250,13 @@ public class NumberleView implements Observer {
     private void updateInputPanelState() {
         int lastGuess = INumberleModel.MAX_ATTEMPTS - controller.getRemainingAttempts() - 1; // Calculate the index of the last guess
         if (lastGuess >= 0) {
-            int startRow = lastGuess % 6; // Calculate the starting row index for the last guess
-            int startIndex = startRow * 7; // Calculate the starting index in the letterLabels array for the last guess
-            int endIndex = startIndex + 7; // Calculate the ending index in the letterLabels array for the last guess
+            int startRow = lastGuess % INumberleModel.MAX_ATTEMPTS; // Calculate the starting row index for the last guess
+            int startIndex = startRow * INumberleModel.EQUATION_LENGTH; // Calculate the starting index in the letterLabels array for the last guess
+            int endIndex = startIndex + INumberleModel.EQUATION_LENGTH; // Calculate the ending index in the letterLabels array for the last guess
 
             String currentGuess = controller.getCurrentGuess().toString(); // Get the current guess as a string
             for (int i = startIndex; i < endIndex; i++) {
-                switch (currentGuess.charAt(i % 7)) { // Retrieve the character at the corresponding index in the current guess
+                switch (currentGuess.charAt(i % INumberleModel.EQUATION_LENGTH)) { // Retrieve the character at the corresponding index in the current guess
                     case '√' -> letterLabels[i].setBackground(Color.GREEN); // Set the background color of the letter label to green if the character is '√'
                     case '?' -> letterLabels[i].setBackground(Color.YELLOW); // Set the background color of the letter label to yellow if the character is '?'
                     case '×' -> letterLabels[i].setBackground(Color.LIGHT_GRAY); // Set the background color of the letter label to light gray if the character is '×'
@@ -315,9 +274,9 @@ public class NumberleView implements Observer {
      */
     private void updateInputPanel(String text) {
         int currentGuess = INumberleModel.MAX_ATTEMPTS - controller.getRemainingAttempts(); // Calculate the current guess number
-        int startRow = currentGuess % 6; // Calculate the starting row index for the current guess
-        int startIndex = startRow * 7; // Calculate the starting index in the letterLabels array for the current guess
-        int endIndex = startIndex + 7; // Calculate the ending index in the letterLabels array for the current guess
+        int startRow = currentGuess % INumberleModel.MAX_ATTEMPTS; // Calculate the starting row index for the current guess
+        int startIndex = startRow * INumberleModel.EQUATION_LENGTH; // Calculate the starting index in the letterLabels array for the current guess
+        int endIndex = startIndex + INumberleModel.EQUATION_LENGTH; // Calculate the ending index in the letterLabels array for the current guess
 
         for (int i = startIndex; i < endIndex; i++) {
             if (i - startIndex < text.length()) { // Check if there are remaining characters in the provided text
@@ -330,7 +289,7 @@ public class NumberleView implements Observer {
 
 
     /**
-     * Initializes the "Start New Game" button.
+     * Initializes the "Start New Game" and "Hint" buttons.
      */
     private void initializeNewGameButton() {
         Font labelFont = new Font("Axure handwriting", Font.PLAIN, 18);
@@ -346,8 +305,16 @@ public class NumberleView implements Observer {
             updateNewGameButton(); // Call the updateNewGameButton() method in the current class
         });
 
+        JButton hintButton = new JButton("Hint"); // Create a button that asks the solver for the next guess
+        hintButton.setFont(labelFont); // Set the font of the button
+        hintButton.addActionListener(e -> {
+            String hint = controller.getHint(); // Ask the controller for a suggestion
+            JOptionPane.showMessageDialog(null, hint == null ? "No hint available" : "Try: " + hint);
+        });
+
         JPanel buttonPanel = new JPanel(); // Create a new JPanel to hold the button
         buttonPanel.add(newGameButton); // Add the newGameButton to the buttonPanel
+        buttonPanel.add(hintButton); // Add the hintButton next to it
         frame.add(buttonPanel, BorderLayout.NORTH); // Add the buttonPanel to the frame's layout in the NORTH region
     }
 
@@ -459,7 +426,7 @@ public class NumberleView implements Observer {
         Font labelFont = new Font("Axure handwriting", Font.PLAIN, 18);
         // Set the text of the attempts label with HTML formatting
         attemptsLabel.setText("<html>Welcome to<br> Numberle! <br><br>Attempts" + "<br> remaining: <br>" +
-                controller.getRemainingAttempts() + " / 6 </html>");
+                controller.getRemainingAttempts() + " / " + INumberleModel.MAX_ATTEMPTS + " </html>");
         // Set the font of the attempts label
         attemptsLabel.setFont(labelFont);
     }
@@ -0,0 +1,33 @@
+package com.mobaijun.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Description: [benchmark entry point]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 00:40]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Runs JMH with the usual command line and always adds the GC profiler, so every run reports
+ * allocation rates ({@code gc.alloc.rate.norm}) next to throughput.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
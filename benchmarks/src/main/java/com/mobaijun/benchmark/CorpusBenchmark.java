@@ -0,0 +1,98 @@
+package com.mobaijun.benchmark;
+
+import com.mobaijun.engine.BoardConfig;
+import com.mobaijun.engine.CorpusCache;
+import com.mobaijun.engine.CorpusLoader;
+import com.mobaijun.engine.CorpusSnapshot;
+import com.mobaijun.engine.EquationGenerator;
+import com.mobaijun.engine.GameCorpus;
+import com.mobaijun.util.TextUtil;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Description: [corpus loading benchmarks]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 00:40]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Loads corpora of several sizes from text, line by line and with the parallel
+ * {@link CorpusLoader}, and fetches them from the {@link CorpusCache} as every new NumberleModel
+ * game does, and compares building a {@link GameCorpus} from text with mapping its
+ * {@link CorpusSnapshot}. The files hold the first {@link #size} equations of the generated
+ * length-8 corpus (166012 equations) and are written to a temporary file once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorpusBenchmark {
+
+    @Param({"1000", "28566", "166012"})
+    public int size;
+
+    private Path file;
+
+    private Path snapshot;
+
+    private final BoardConfig board = BoardConfig.ofLength(8);
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> corpus = EquationGenerator.generate(8);
+        file = Files.createTempFile("equations-" + size, ".txt");
+        EquationGenerator.write(corpus.subList(0, Math.min(size, corpus.size())), file);
+        snapshot = Files.createTempFile("equations-" + size, ".snapshot");
+        CorpusSnapshot.write(new GameCorpus(CorpusLoader.load(file, 8), board), snapshot, file);
+        // Loaded once here; corpusCache() measures what every later game pays
+        CorpusCache.get(file, 8);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public List<String> readTextFromFile() {
+        return TextUtil.readTextFromFile(file.toString());
+    }
+
+    @Benchmark
+    public long[] corpusLoader() throws IOException {
+        return CorpusLoader.load(file, 8);
+    }
+
+    @Benchmark
+    public GameCorpus textCorpus() throws IOException {
+        return new GameCorpus(CorpusLoader.load(file, 8), board);
+    }
+
+    @Benchmark
+    public GameCorpus corpusSnapshot() throws IOException {
+        return CorpusSnapshot.load(snapshot, board, file);
+    }
+
+    @Benchmark
+    public GameCorpus corpusCache() {
+        return CorpusCache.get(file, 8);
+    }
+}
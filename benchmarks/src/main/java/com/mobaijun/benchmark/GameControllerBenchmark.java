@@ -0,0 +1,92 @@
+package com.mobaijun.benchmark;
+
+import com.mobaijun.controller.GameController;
+import com.mobaijun.engine.EquationGenerator;
+import com.mobaijun.service.impl.GameInterfaceImpl;
+import com.mobaijun.util.GameView;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Description: [GameController benchmarks]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 00:40]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Measures the model to view synchronisation done after every key press, and restarting a game.
+ * Each {@link #update()} types or deletes one symbol first, so that one cell really changes, and
+ * synchronises on the EDT like the game does. The view is created but
+ * never shown; it is still a {@code JFrame}, so this benchmark needs a display (e.g. xvfb-run) and
+ * fails with a {@code HeadlessException} without one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameControllerBenchmark {
+
+    private GameController controller;
+
+    private GameView view;
+
+    private GameInterfaceImpl model;
+
+    /**
+     * Whether the symbol toggled by {@link #update()} is currently typed.
+     */
+    private boolean typed;
+
+    @Setup
+    public void setUp() throws Exception {
+        model = new GameInterfaceImpl(EquationGenerator.generate(7));
+        controller = new GameController(model);
+        SwingUtilities.invokeAndWait(() -> {
+            view = new GameView(controller, model);
+            controller.setView(view);
+        });
+        // Half a row typed, as in the middle of a guess
+        for (String symbol : new String[]{"6", "+", "4", "="}) {
+            model.processInput(symbol);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        SwingUtilities.invokeAndWait(view::dispose);
+    }
+
+    /**
+     * One key press: a symbol typed or deleted, then the changed cell pushed to the view.
+     */
+    @Benchmark
+    public void update() throws Exception {
+        if (typed) {
+            model.back();
+        } else {
+            model.processInput("2");
+        }
+        typed = !typed;
+        SwingUtilities.invokeAndWait(controller::update);
+    }
+
+    /**
+     * Time to playable after pressing Restart.
+     */
+    @Benchmark
+    public void restart() throws Exception {
+        SwingUtilities.invokeAndWait(() -> controller.gameOver(0));
+    }
+}
@@ -0,0 +1,93 @@
+package com.mobaijun.benchmark;
+
+import com.mobaijun.engine.EquationGenerator;
+import com.mobaijun.service.impl.GameInterfaceImpl;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Description: [GameInterfaceImpl benchmarks]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 00:40]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * One operation types a whole guess and checks it, as the Enter key does. The legacy variants
+ * fork with {@code -Dnumberle.legacyEvaluator=true}, so both validation paths are measured on the
+ * same guesses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameInterfaceBenchmark {
+
+    /**
+     * A balanced guess, which is scored, and an unbalanced one, which is rejected.
+     */
+    @Param({"6+4=2*5", "1+2+3=7"})
+    public String guess;
+
+    private String[] symbols;
+
+    private String left;
+
+    private GameInterfaceImpl model;
+
+    private MethodHandle calculateExpressionValue;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        List<String> corpus = EquationGenerator.generate(7);
+        model = new GameInterfaceImpl(corpus);
+        model.startNewGame("9-3=2*3");
+        symbols = new String[guess.length()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = String.valueOf(guess.charAt(i));
+        }
+        left = guess.substring(0, guess.indexOf('='));
+        calculateExpressionValue = MethodHandles.privateLookupIn(GameInterfaceImpl.class, MethodHandles.lookup())
+                .findVirtual(GameInterfaceImpl.class, "calculateExpressionValue",
+                        MethodType.methodType(double.class, String.class));
+    }
+
+    @Benchmark
+    public int[] checkEquation() {
+        return typeAndCheck();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dnumberle.legacyEvaluator=true")
+    public int[] checkEquationLegacy() {
+        return typeAndCheck();
+    }
+
+    @Benchmark
+    public double calculateExpressionValue() throws Throwable {
+        return (double) calculateExpressionValue.invokeExact(model, left);
+    }
+
+    private int[] typeAndCheck() {
+        for (String symbol : symbols) {
+            model.processInput(symbol);
+        }
+        int[] result = model.checkEquation();
+        model.clear();
+        return result;
+    }
+}
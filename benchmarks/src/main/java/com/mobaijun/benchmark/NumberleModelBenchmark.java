@@ -0,0 +1,79 @@
+package com.mobaijun.benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Description: [NumberleModel benchmarks]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 00:40]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * The Numberle module lives in the default package, which named packages cannot import, so the
+ * model is reached through method handles resolved once per trial. The model reads
+ * {@code equations.txt} from the working directory: run from {@code Numberle/}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberleModelBenchmark {
+
+    @Param({"6+4=2*5", "1+2+3=7"})
+    public String guess;
+
+    private Object model;
+
+    private MethodHandle processInput;
+
+    private MethodHandle validEquation;
+
+    @Setup
+    public void setUp() throws Throwable {
+        if (!Files.isRegularFile(Path.of("equations.txt"))) {
+            throw new IllegalStateException("equations.txt not found; run the benchmarks from the Numberle directory");
+        }
+        Class<?> type = Class.forName("NumberleModel");
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        model = lookup.findConstructor(type, MethodType.methodType(void.class)).invoke();
+        lookup.findVirtual(type, "initialize", MethodType.methodType(void.class)).invoke(model);
+        processInput = handle(lookup, type, "processInput", boolean.class);
+        validEquation = handle(lookup, type, "validEquation", boolean.class);
+    }
+
+    @Benchmark
+    public boolean processInput() throws Throwable {
+        return (boolean) processInput.invokeExact(model, guess);
+    }
+
+    @Benchmark
+    public boolean validEquation() throws Throwable {
+        return (boolean) validEquation.invokeExact(model, guess);
+    }
+
+    /**
+     * @return a {@code (Object, String) -> returnType} handle, so it can be invoked exactly
+     */
+    static MethodHandle handle(MethodHandles.Lookup lookup, Class<?> type, String name, Class<?> returnType)
+            throws ReflectiveOperationException {
+        return lookup.findVirtual(type, name, MethodType.methodType(returnType, String.class))
+                .asType(MethodType.methodType(returnType, Object.class, String.class));
+    }
+}
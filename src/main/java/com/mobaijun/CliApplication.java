@@ -1,7 +1,10 @@
 package com.mobaijun;
 
+import com.mobaijun.engine.BoardConfig;
 import com.mobaijun.service.impl.GameInterfaceImpl;
+import com.mobaijun.stats.StatsStore;
 import com.mobaijun.util.TextUtil;
+import java.io.IOException;
 import java.util.Scanner;
 
 /**
@@ -12,9 +15,10 @@ import java.util.Scanner;
  */
 public class CliApplication {
 
-    public static void main(String[] args) {
-        GameInterfaceImpl model = new GameInterfaceImpl(TextUtil.readTextFromFile());
-        System.out.println("Play the Numberle game:");
+    public static void main(String[] args) throws IOException {
+        GameInterfaceImpl model = new GameInterfaceImpl(TextUtil.readCorpus(BoardConfig.DEFAULT));
+        StatsStore stats = openStats(model.getBoard());
+        System.out.println("Play the Numberle game (" + model.getBoard().length() + " symbols):");
         Scanner scanner = new Scanner(System.in);
         while (true) {
             String enter = scanner.nextLine();
@@ -22,47 +26,35 @@ public class CliApplication {
                 System.exit(0);
             }
             char[] enterChars = enter.toCharArray();
-            if (enterChars.length != 7) {
+            if (enterChars.length != model.getBoard().length()) {
                 System.out.println("Too short");
             } else {
                 for (char enterChar : enterChars) {
                     model.processInput(String.valueOf(enterChar));
                 }
                 int[] verify = model.checkEquation();
-                if (verify[0] == 1) {
+                if (verify[0] == -1) {
                     System.out.println("No equals sign");
                     model.clear();
                     System.out.println("Enter again");
-                } else if (verify[0] == 2) {
+                } else if (verify[0] == -2) {
                     System.out.println("No operator");
                     model.clear();
                     System.out.println("Enter again");
-                } else if (verify[0] == 3) {
+                } else if (verify[0] == -3) {
                     System.out.println("left and right of the expression are not equal");
                     model.clear();
                     System.out.println("Enter again");
-                } else if (verify[0] == 5) {
+                } else if (verify[0] == -5) {
                     System.out.println("You lose!");
-                    System.out.println("Restart or end: ");
-                    String sc = scanner.next();
-                    if (sc.equals("r")) {
-                        model.startNewGame();
-                        System.out.println("Start new game:");
-                        scanner.nextLine();
-                    } else if (sc.equals("end")) {
-                        System.exit(0);
-                    }
-                } else if (verify[0] == 6) {
+                    record(stats, false, model.getLineNum() + 1);
+                    restartOrEnd(scanner, model);
+                } else if (verify[0] == -6) {
                     System.out.println("You win!");
-                    System.out.println("Restart or end: ");
-                    String sc = scanner.next();
-                    if (sc.equals("r")) {
-                        model.startNewGame();
-                    } else if (sc.equals("end")) {
-                        System.exit(0);
-                    }
+                    record(stats, true, model.getLineNum() + 1);
+                    restartOrEnd(scanner, model);
                 } else {
-                    if (verify.length == 7) {
+                    if (verify.length == model.getBoard().length()) {
                         for (int i = 0; i < verify.length; i++) {
                             if (verify[i] == 2) {
                                 System.out.println(model.getEnteredStrings()[i] + " (Exclude it)");
@@ -75,8 +67,61 @@ public class CliApplication {
                     }
                     model.clear();
                     model.setLineNum(model.getLineNum() + 1);
-                    System.out.println("You can try " + (6 - model.getLineNum()) + " times");
+                    System.out.println("You can try " + (model.getBoard().attempts() - model.getLineNum()) + " times");
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens the statistics store, or returns null to play without statistics when it cannot be
+     * opened or does not record games of the board.
+     */
+    private static StatsStore openStats(BoardConfig board) {
+        if (!StatsStore.canRecord(board)) {
+            System.out.println("Statistics are not kept on a board of " + board.attempts() + " attempts");
+            return null;
+        }
+        try {
+            StatsStore stats = new StatsStore(StatsStore.DEFAULT_FILE);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    stats.close();
+                } catch (IOException e) {
+                    System.out.println("Failed to save statistics: " + e.getMessage());
                 }
+            }));
+            return stats;
+        } catch (IOException e) {
+            System.out.println("Statistics are not kept: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Records a finished game without waiting for the store; the statistics are printed once written.
+     */
+    private static void record(StatsStore stats, boolean won, int guesses) {
+        if (stats != null) {
+            stats.record(StatsStore.DEFAULT_PLAYER, won, guesses).whenComplete((result, error) ->
+                    System.out.println(error != null ? "Failed to save statistics: " + error.getMessage() : result));
+        }
+    }
+
+    /**
+     * Asks until the player restarts or ends a finished game, so that it is never played (and
+     * recorded) again.
+     */
+    private static void restartOrEnd(Scanner scanner, GameInterfaceImpl model) {
+        while (true) {
+            System.out.println("Restart or end: ");
+            String sc = scanner.nextLine().trim();
+            if (sc.equals("r")) {
+                model.startNewGame();
+                System.out.println("Start new game:");
+                return;
+            } else if (sc.equals("end")) {
+                System.exit(0);
             }
         }
     }
@@ -1,8 +1,11 @@
 package com.mobaijun;
 
 import com.mobaijun.controller.GameController;
+import com.mobaijun.engine.BoardConfig;
 import com.mobaijun.service.impl.GameInterfaceImpl;
+import com.mobaijun.stats.StatsStore;
 import com.mobaijun.util.TextUtil;
+import java.io.IOException;
 import javax.swing.*;
 import lombok.extern.slf4j.Slf4j;
 
@@ -17,11 +20,32 @@ public class GuiApplication {
 
     public static void main(String[] args) {
         setLookAndFeel();
-        GameInterfaceImpl model = new GameInterfaceImpl(TextUtil.readTextFromFile());
-        GameController controller = new GameController(model);
+        GameInterfaceImpl model = new GameInterfaceImpl(TextUtil.readCorpus(BoardConfig.DEFAULT));
+        GameController controller = new GameController(model, openStats());
         controller.startGame();
     }
 
+    /**
+     * Opens the player statistics; the game still runs without them.
+     */
+    private static StatsStore openStats() {
+        try {
+            StatsStore stats = new StatsStore(StatsStore.DEFAULT_FILE);
+            // Writes the last batch when the window closes the application
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    stats.close();
+                } catch (IOException e) {
+                    log.error("Failed to close the statistics store {}", stats.getFile(), e);
+                }
+            }));
+            return stats;
+        } catch (IOException e) {
+            log.error("Failed to open the statistics store {}", StatsStore.DEFAULT_FILE, e);
+            return null;
+        }
+    }
+
     /**
      * Sets the look and feel for the application.
      */
@@ -0,0 +1,40 @@
+package com.mobaijun;
+
+import com.mobaijun.engine.BoardConfig;
+import com.mobaijun.server.GameJournal;
+import com.mobaijun.server.GameServer;
+import com.mobaijun.server.SessionStore;
+import com.mobaijun.util.TextUtil;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+
+/**
+ * Description: [HTTP server client]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 01:00]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Usage: {@code ServerApplication [port]}; defaults to port 8080. Games are played on the board
+ * picked with {@code -Dnumberle.board}, classic by default. They are journaled to
+ * {@code numberle-journal.bin} in the working directory and restored on start; set
+ * {@code -Dnumberle.journal} to another file, or to an empty value to keep games in memory only,
+ * which boards of more than 10 symbols require.
+ */
+public class ServerApplication {
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        BoardConfig board = BoardConfig.DEFAULT;
+        String journalFile = System.getProperty("numberle.journal", "numberle-journal.bin");
+        if (!journalFile.isEmpty()) {
+            // Fail before touching the journal rather than after loading the corpus
+            GameJournal.checkBoard(board);
+        }
+        GameJournal journal = journalFile.isEmpty() ? null : new GameJournal(Path.of(journalFile));
+        GameServer server = new GameServer(TextUtil.readCorpus(board), new InetSocketAddress(port),
+                new SessionStore(), journal);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+        server.start();
+    }
+}
@@ -0,0 +1,30 @@
+package com.mobaijun;
+
+import com.mobaijun.engine.BoardConfig;
+import com.mobaijun.simulation.GuessStrategy;
+import com.mobaijun.simulation.SimulationResult;
+import com.mobaijun.simulation.Simulator;
+import com.mobaijun.util.TextUtil;
+
+/**
+ * Description: [headless simulation client]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 00:20]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Usage: {@code SimulationApplication [games] [first|random|hint] [threads] [seed]}; defaults to
+ * 100000 games of the {@code random} strategy on every core, on the board of {@code -Dnumberle.board}.
+ */
+public class SimulationApplication {
+
+    public static void main(String[] args) throws InterruptedException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        GuessStrategy strategy = GuessStrategy.named(args.length > 1 ? args[1] : "random");
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        Simulator simulator = new Simulator(TextUtil.readCorpus(BoardConfig.DEFAULT), strategy, threads);
+        SimulationResult result = simulator.run(games, seed);
+        System.out.println(result);
+    }
+}
@@ -1,10 +1,17 @@
 package com.mobaijun.controller;
 
+import com.mobaijun.event.GameEvent;
 import com.mobaijun.service.impl.GameInterfaceImpl;
+import com.mobaijun.stats.PlayerStats;
+import com.mobaijun.stats.StatsStore;
 import com.mobaijun.util.GameView;
-import com.mobaijun.util.TextUtil;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.swing.*;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Description: [conroller]
@@ -12,6 +19,7 @@ import lombok.Getter;
  * Date: [2024/5/7 15:23]
  * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
  */
+@Slf4j
 public class GameController {
 
     private GameInterfaceImpl model;
@@ -23,8 +31,48 @@ public class GameController {
     @Getter
     private GameView view;
 
+    /**
+     * Symbols last pushed to the cells of the row being typed, so that update() only sends the
+     * cells that changed.
+     */
+    private final String[] rendered;
+
+    /**
+     * Row that {@link #rendered} describes, or -1 if the view has not been drawn from the model yet.
+     */
+    private int renderedLine = -1;
+
+    /**
+     * Where finished games are recorded, or null.
+     */
+    private final StatsStore stats;
+
+    /**
+     * Runs the solver for hints, one at a time, off the EDT.
+     */
+    private final ExecutorService hints = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hint-solver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     public GameController(GameInterfaceImpl model) {
+        this(model, null);
+    }
+
+    /**
+     * @param stats store the results of {@link StatsStore#DEFAULT_PLAYER} are recorded in, or null;
+     *              ignored if the model's board allows more guesses than it records
+     */
+    public GameController(GameInterfaceImpl model, StatsStore stats) {
         this.model = model;
+        if (stats != null && !StatsStore.canRecord(model.getBoard())) {
+            log.warn("Statistics are not kept on a board of {} attempts; the store records up to {}",
+                    model.getBoard().attempts(), PlayerStats.MAX_GUESSES);
+            stats = null;
+        }
+        this.stats = stats;
+        this.rendered = new String[model.getBoard().length()];
     }
 
     /**
@@ -35,52 +83,94 @@ public class GameController {
         GameView page = new GameView(this, model);
         page.setVisible(true);
         page.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-        this.view = page;
+        setView(page);
         page.setControl(this);
     }
 
     /**
-     * Synchronizes data between the model and the view by processing input for each cell.
+     * Synchronizes data between the model and the view, pushing only the cells of the current row
+     * whose symbol changed since the last update.
      */
     public void update() {
-        for (int i = 0; i < model.getEnteredStrings().length; i++) {
-            if (model.getEnteredStrings()[i] != null) {
-                getView().processInput(model.getEnteredStrings()[i], i + (model.getLineNum() * 7));
-            } else {
-                getView().processInput("", i + (model.getLineNum() * 7));
+        String[] entered = model.getEnteredStrings();
+        int lineNum = model.getLineNum();
+        if (lineNum != renderedLine) {
+            // A fresh row starts out blank
+            Arrays.fill(rendered, "");
+            renderedLine = lineNum;
+        }
+        for (int i = 0; i < entered.length; i++) {
+            String symbol = entered[i] != null ? entered[i] : "";
+            if (!symbol.equals(rendered[i])) {
+                rendered[i] = symbol;
+                getView().processInput(symbol, i + (lineNum * rendered.length));
             }
         }
     }
 
+    /**
+     * Records a finished game; the store writes it in the background.
+     *
+     * @param won     true if the equation was found
+     * @param guesses number of guesses used
+     */
+    public void gameFinished(boolean won, int guesses) {
+        if (stats != null) {
+            stats.record(StatsStore.DEFAULT_PLAYER, won, guesses);
+        }
+    }
+
+    /**
+     * Asks the solver for the next guess on the hint thread, so the EDT keeps painting during the
+     * search. Call on the EDT: the remaining answers are taken before this returns.
+     *
+     * @return completes with the suggested equation, or null if none fits the feedback; on the hint
+     * thread, so hand the result to the EDT before showing it
+     */
+    public CompletableFuture<String> getHint() {
+        return model.getHint(hints);
+    }
+
+    /**
+     * Reads the player's statistics on the store's writer thread, after the queued results are
+     * written, so the caller never waits on the disk.
+     *
+     * @return completes with the statistics including every finished game, or with null without a
+     * store; on the writer thread, so hand the result to the EDT before showing it
+     */
+    public CompletableFuture<PlayerStats> getStats() {
+        if (stats == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return stats.flush().thenApply(done -> stats.get(StatsStore.DEFAULT_PLAYER));
+    }
+
     /**
      * Handles game over events.
      *
-     * @param i 0 for restarting the game, 1 for exiting the application.
+     * @param i 0 for restarting the game in place, 1 for exiting the application.
      */
     public void gameOver(int i) {
         if (i == 0) {
+            // Reuse the loaded corpus, the frame and the model's listeners: only per-game state is reset
+            long start = System.nanoTime();
             model.startNewGame();
-            getView().removeKeyListener(getView().getKeyListeners()[0]);
-            this.model = new GameInterfaceImpl(TextUtil.readTextFromFile());
-            getView().setControl(this);
-            getView().dispose();
-            GameView page = new GameView(this, model);
-            setView(page);
-            page.initializeFrame(page);
-            page.removeKeyListener(page.getKeyListeners()[0]);
-            page.setVisible(true);
+            getView().reset();
+            renderedLine = -1;
+            log.debug("Restarted in {} us", (System.nanoTime() - start) / 1_000);
         } else {
             System.exit(0);
         }
     }
 
     /**
-     * Sets the provided view as the current view and adds it as an observer to the model.
+     * Sets the provided view as the current view and redraws it on the EDT whenever the model's input changes.
      *
      * @param view The GameView instance to set.
      */
     public void setView(GameView view) {
         this.view = view;
-        model.addObserver(view);
+        renderedLine = -1;
+        model.getEvents().subscribeSwing(GameEvent.InputChanged.class, event -> view.update());
     }
 }
@@ -0,0 +1,104 @@
+package com.mobaijun.engine;
+
+import java.util.Locale;
+
+/**
+ * Description: [board configuration]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 03:20]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * The shape of a game: how many symbols an equation has and how many guesses are allowed. The
+ * corpus, validation, scoring and views all take their sizes from here. The modes are
+ * {@link #MINI} (5 symbols), {@link #CLASSIC} (7) and maxi (10 to 12); the default is picked with
+ * {@code -Dnumberle.board=mini|classic|maxi|maxi-11|maxi-12}.
+ * <p>
+ * Every length fits the primitive encodings: an equation is packed 4 bits per symbol into a
+ * {@code long} ({@link Symbols}, up to 16 symbols) and a feedback pattern is a base-3 {@code int}
+ * ({@link FeedbackScorer}, 3^12 = 531441 patterns at 12 symbols).
+ *
+ * @param name     mode name
+ * @param length   number of symbols per equation
+ * @param attempts number of guesses allowed
+ */
+public record BoardConfig(String name, int length, int attempts) {
+
+    public static final int MIN_LENGTH = 5;
+
+    public static final int MAX_LENGTH = 12;
+
+    public static final int DEFAULT_ATTEMPTS = 6;
+
+    public static final BoardConfig MINI = new BoardConfig("mini", 5, DEFAULT_ATTEMPTS);
+
+    public static final BoardConfig CLASSIC = new BoardConfig("classic", 7, DEFAULT_ATTEMPTS);
+
+    /**
+     * The board selected with {@code -Dnumberle.board}, classic if unset.
+     */
+    public static final BoardConfig DEFAULT = parse(System.getProperty("numberle.board", "classic"));
+
+    public BoardConfig {
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Equations must have " + MIN_LENGTH + " to " + MAX_LENGTH
+                    + " symbols: " + length);
+        }
+        if (attempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is needed: " + attempts);
+        }
+    }
+
+    /**
+     * @Pre 10 <= length <= 12
+     */
+    public static BoardConfig maxi(int length) {
+        if (length < 10) {
+            throw new IllegalArgumentException("Maxi boards have 10 to " + MAX_LENGTH + " symbols: " + length);
+        }
+        return new BoardConfig("maxi", length, DEFAULT_ATTEMPTS);
+    }
+
+    /**
+     * @return the mode of that length, or a custom board with the default number of attempts
+     */
+    public static BoardConfig ofLength(int length) {
+        return switch (length) {
+            case 5 -> MINI;
+            case 7 -> CLASSIC;
+            case 10, 11, 12 -> maxi(length);
+            default -> new BoardConfig("custom", length, DEFAULT_ATTEMPTS);
+        };
+    }
+
+    /**
+     * Parses {@code mini}, {@code classic}, {@code maxi} (10 symbols) or {@code maxi-<length>}.
+     */
+    public static BoardConfig parse(String mode) {
+        String normalized = mode.strip().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "mini" -> MINI;
+            case "classic" -> CLASSIC;
+            case "maxi" -> maxi(10);
+            default -> {
+                if (normalized.startsWith("maxi-")) {
+                    yield maxi(Integer.parseInt(normalized.substring("maxi-".length())));
+                }
+                throw new IllegalArgumentException("Unknown board: " + mode);
+            }
+        };
+    }
+
+    /**
+     * @return the number of cells of the board, one per symbol of every attempt
+     */
+    public int cells() {
+        return length * attempts;
+    }
+
+    /**
+     * @return a validator for guesses on this board; not thread-safe, keep one per game
+     */
+    public EquationValidator newValidator() {
+        return new EquationValidator(length);
+    }
+}
@@ -0,0 +1,188 @@
+package com.mobaijun.engine;
+
+import java.nio.LongBuffer;
+
+/**
+ * Description: [bitset index of corpus equations by position and symbol count]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 00:05]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Bitsets over equation ids (positions in the packed corpus), one bit per equation in
+ * {@code long[]} words:
+ * <ul>
+ *     <li>{@code at[position][symbol]}: equations with that symbol at that position;</li>
+ *     <li>{@code atLeast[symbol][k]}: equations containing the symbol at least {@code k} times.</li>
+ * </ul>
+ * Feedback on one guess translates exactly into these sets: a green requires the symbol at its
+ * position, any other state forbids it there, and per symbol the greens and yellows give a minimum
+ * count which becomes exact as soon as one copy of the symbol is grey. {@link CandidateSet} applies
+ * that with word-wide AND/ANDNOT instead of rescoring every equation. The index is immutable and
+ * can be shared by any number of games.
+ */
+public final class CandidateIndex {
+
+    private final EquationStore corpus;
+
+    private final int length;
+
+    private final int wordCount;
+
+    private final long[][][] at;
+
+    /**
+     * {@code atLeast[symbol][k]} for {@code 1 <= k <= length}; slot 0 is unused.
+     */
+    private final long[][][] atLeast;
+
+    /**
+     * @param corpus packed equations; ids are array positions
+     * @param length number of symbols per equation
+     */
+    public CandidateIndex(long[] corpus, int length) {
+        this(EquationStore.of(corpus, length));
+    }
+
+    /**
+     * @param corpus the equations; ids are store positions
+     */
+    public CandidateIndex(EquationStore corpus) {
+        this.corpus = corpus;
+        this.length = corpus.getLength();
+        this.wordCount = (corpus.size() + 63) >>> 6;
+        this.at = new long[length][Symbols.COUNT][wordCount];
+        this.atLeast = new long[Symbols.COUNT][length + 1][wordCount];
+        int[] counts = new int[Symbols.COUNT];
+        for (int id = 0; id < corpus.size(); id++) {
+            long equation = corpus.packed(id);
+            int word = id >>> 6;
+            long bit = 1L << id;
+            for (int i = 0; i < length; i++) {
+                int symbol = Symbols.at(equation, i);
+                at[i][symbol][word] |= bit;
+                atLeast[symbol][++counts[symbol]][word] |= bit;
+            }
+            for (int i = 0; i < length; i++) {
+                counts[Symbols.at(equation, i)] = 0;
+            }
+        }
+    }
+
+    /**
+     * Restores an index from the words {@link #writeBits(LongBuffer)} wrote, without rescanning the
+     * corpus.
+     *
+     * @param corpus the equations the bits were computed from
+     * @param bits   {@link #bitWords(int, int)} words, from the buffer's position on
+     */
+    CandidateIndex(EquationStore corpus, LongBuffer bits) {
+        this.corpus = corpus;
+        this.length = corpus.getLength();
+        this.wordCount = (corpus.size() + 63) >>> 6;
+        if (bits.remaining() < bitWords(length, corpus.size())) {
+            throw new IllegalArgumentException("Truncated candidate index of " + corpus.size() + " equations");
+        }
+        this.at = new long[length][Symbols.COUNT][wordCount];
+        this.atLeast = new long[Symbols.COUNT][length + 1][wordCount];
+        for (long[][] position : at) {
+            for (long[] words : position) {
+                bits.get(words);
+            }
+        }
+        for (long[][] symbol : atLeast) {
+            for (int k = 1; k <= length; k++) {
+                bits.get(symbol[k]);
+            }
+        }
+    }
+
+    /**
+     * @return the number of words {@link #writeBits(LongBuffer)} writes for a corpus
+     */
+    static long bitWords(int length, int size) {
+        return 2L * length * Symbols.COUNT * ((size + 63) >>> 6);
+    }
+
+    /**
+     * Appends the bitsets to a buffer: {@code at} by position then symbol, then {@code atLeast} by
+     * symbol then count.
+     */
+    void writeBits(LongBuffer bits) {
+        for (long[][] position : at) {
+            for (long[] words : position) {
+                bits.put(words);
+            }
+        }
+        for (long[][] symbol : atLeast) {
+            for (int k = 1; k <= length; k++) {
+                bits.put(symbol[k]);
+            }
+        }
+    }
+
+    /**
+     * @return a new set holding every equation of the corpus
+     */
+    public CandidateSet newSet() {
+        return new CandidateSet(this);
+    }
+
+    public EquationStore getCorpus() {
+        return corpus;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int size() {
+        return corpus.size();
+    }
+
+    int wordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Keeps in {@code words} only the equations that would give {@code pattern} for {@code guess}.
+     */
+    void narrow(long[] words, long guess, int pattern) {
+        int[] required = new int[Symbols.COUNT];
+        boolean[] exact = new boolean[Symbols.COUNT];
+        for (int i = 0; i < length; i++) {
+            int symbol = Symbols.at(guess, i);
+            int state = FeedbackScorer.stateAt(pattern, i);
+            if (state == FeedbackScorer.GREEN) {
+                and(words, at[i][symbol]);
+            } else {
+                andNot(words, at[i][symbol]);
+            }
+            if (state == FeedbackScorer.GREY) {
+                exact[symbol] = true;
+            } else {
+                required[symbol]++;
+            }
+        }
+        for (int symbol = 0; symbol < Symbols.COUNT; symbol++) {
+            int count = required[symbol];
+            if (count > 0) {
+                and(words, atLeast[symbol][count]);
+            }
+            if (exact[symbol] && count < length) {
+                andNot(words, atLeast[symbol][count + 1]);
+            }
+        }
+    }
+
+    private void and(long[] words, long[] mask) {
+        for (int w = 0; w < wordCount; w++) {
+            words[w] &= mask[w];
+        }
+    }
+
+    private void andNot(long[] words, long[] mask) {
+        for (int w = 0; w < wordCount; w++) {
+            words[w] &= ~mask[w];
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.mobaijun.engine;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Description: [remaining answers of one game]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 00:05]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Bitset of the equation ids of a {@link CandidateIndex} that are still consistent with every
+ * guess of a game. Starts full and shrinks with {@link #narrow(long, int)}. Not thread-safe; each
+ * game owns its own set.
+ */
+public final class CandidateSet {
+
+    private final CandidateIndex index;
+
+    private final long[] words;
+
+    private int count;
+
+    CandidateSet(CandidateIndex index) {
+        this.index = index;
+        this.words = new long[index.wordCount()];
+        reset();
+    }
+
+    /**
+     * Makes every equation of the corpus possible again.
+     */
+    public void reset() {
+        int size = index.size();
+        Arrays.fill(words, -1L);
+        if ((size & 63) != 0) {
+            words[words.length - 1] = (1L << size) - 1;
+        }
+        count = size;
+    }
+
+    /**
+     * Keeps only the equations that would give {@code pattern} for the packed {@code guess}.
+     */
+    public void narrow(long guess, int pattern) {
+        index.narrow(words, guess, pattern);
+        int total = 0;
+        for (long word : words) {
+            total += Long.bitCount(word);
+        }
+        count = total;
+    }
+
+    /**
+     * @return the number of remaining equations
+     */
+    public int count() {
+        return count;
+    }
+
+    public boolean contains(int id) {
+        return (words[id >>> 6] & (1L << id)) != 0;
+    }
+
+    /**
+     * @return the remaining ids in ascending order
+     */
+    public int[] toArray() {
+        int[] ids = new int[count];
+        int size = 0;
+        for (int w = 0; w < words.length; w++) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                ids[size++] = (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @return the id of the remaining equation with the given rank in ascending id order
+     * @Pre 0 <= rank < count()
+     */
+    public int select(int rank) {
+        for (int w = 0; w < words.length; w++) {
+            int bits = Long.bitCount(words[w]);
+            if (rank < bits) {
+                long word = words[w];
+                for (; rank > 0; rank--) {
+                    word &= word - 1;
+                }
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            rank -= bits;
+        }
+        throw new IndexOutOfBoundsException("Rank outside the " + count + " remaining equations");
+    }
+
+    /**
+     * @return the remaining ids in ascending order; the set must not be narrowed while iterating
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+
+            private int w = -1;
+
+            private long word;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0) {
+                    if (++w >= words.length) {
+                        return false;
+                    }
+                    word = words[w];
+                }
+                return true;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int id = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return id;
+            }
+        };
+    }
+
+    /**
+     * @return the packed equation with the given id
+     */
+    public long equation(int id) {
+        return index.getCorpus().packed(id);
+    }
+
+    public CandidateIndex getIndex() {
+        return index;
+    }
+}
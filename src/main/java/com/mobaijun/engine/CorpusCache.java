@@ -0,0 +1,230 @@
+package com.mobaijun.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Description: [process-wide corpus cache with hot reload]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 02:20]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Loads each equations file once into a {@link GameCorpus} shared by every game of the process,
+ * then watches its directory with a {@link WatchService}. When the file changes it is read and
+ * indexed off to the side and the new corpus is published with a single volatile write, RCU style:
+ * {@link #get} never blocks on a reload, a game keeps the snapshot it started with, and the next
+ * game sees the new one. A reload that fails or yields no equations keeps the previous corpus.
+ * <p>
+ * A changed file is read only once its size and modification time are the same on two polls
+ * {@link #SETTLE_MILLIS} apart, so a slow writer is not caught halfway. Writers that cannot
+ * guarantee that should write a temporary file and rename it over the equations file, which the
+ * watcher sees as a single create of the complete file.
+ * <p>
+ * Boards without an equations file get a corpus generated once by {@link #get(BoardConfig)}.
+ */
+@Slf4j
+public final class CorpusCache {
+
+    /**
+     * Interval between the polls of a changed file's size and modification time; it is read once
+     * two polls in a row agree, so that a burst of writes causes one reload of the complete file.
+     */
+    static final long SETTLE_MILLIS = 100;
+
+    private static final Map<Key, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    private static final Map<BoardConfig, GameCorpus> GENERATED = new ConcurrentHashMap<>();
+
+    private static final Set<Path> WATCHED = ConcurrentHashMap.newKeySet();
+
+    private static WatchService watcher;
+
+    private CorpusCache() {
+    }
+
+    /**
+     * Returns the current corpus of a file, loading it on first use.
+     *
+     * @param file   the equations file, one equation per line, read by {@link CorpusLoader}
+     * @param length number of symbols per equation
+     * @return the latest successfully loaded corpus
+     * @throws UncheckedIOException if the file cannot be read the first time
+     */
+    public static GameCorpus get(Path file, int length) {
+        Key key = new Key(file.toAbsolutePath().normalize(), length);
+        Entry entry = ENTRIES.get(key);
+        if (entry == null) {
+            entry = ENTRIES.computeIfAbsent(key, k -> new Entry(k, load(k)));
+            watch(key.file().getParent());
+        }
+        return entry.corpus;
+    }
+
+    /**
+     * Returns the generated corpus of a board, generating it on first use.
+     *
+     * @see GameCorpus#generate(BoardConfig)
+     */
+    public static GameCorpus get(BoardConfig board) {
+        return GENERATED.computeIfAbsent(board, GameCorpus::generate);
+    }
+
+    /**
+     * @return how many times the corpus of the file was replaced since it was first loaded, or -1
+     * if it is not cached
+     */
+    public static int reloadCount(Path file, int length) {
+        Entry entry = ENTRIES.get(new Key(file.toAbsolutePath().normalize(), length));
+        return entry == null ? -1 : entry.reloads;
+    }
+
+    private static GameCorpus load(Key key) {
+        try {
+            return new GameCorpus(CorpusLoader.load(key.file(), key.length()), BoardConfig.ofLength(key.length()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void reload(Entry entry) {
+        GameCorpus corpus;
+        try {
+            corpus = load(entry.key);
+        } catch (RuntimeException e) {
+            log.warn("Keeping the current corpus, reloading {} failed", entry.key.file(), e);
+            return;
+        }
+        if (corpus.size() == 0) {
+            log.warn("Keeping the current corpus, {} has no equations", entry.key.file());
+            return;
+        }
+        entry.corpus = corpus;
+        entry.reloads++;
+        log.info("Reloaded {} equations from {}", corpus.size(), entry.key.file());
+    }
+
+    private static synchronized void watch(Path directory) {
+        if (directory == null || !WATCHED.add(directory)) {
+            return;
+        }
+        try {
+            if (watcher == null) {
+                watcher = FileSystems.getDefault().newWatchService();
+                Thread thread = new Thread(CorpusCache::run, "corpus-watcher");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            // The corpus still works, it just will not follow changes
+            log.warn("Cannot watch {} for corpus changes", directory, e);
+        }
+    }
+
+    private static void run() {
+        try {
+            while (true) {
+                Set<Path> changed = new HashSet<>();
+                collect(watcher.take(), changed);
+                // Wait until no watched file that changed is still being written
+                Map<Path, Stamp> stamps = stamp(changed);
+                while (true) {
+                    Thread.sleep(SETTLE_MILLIS);
+                    for (WatchKey key = watcher.poll(); key != null; key = watcher.poll()) {
+                        collect(key, changed);
+                    }
+                    Map<Path, Stamp> current = stamp(changed);
+                    if (current.equals(stamps)) {
+                        break;
+                    }
+                    stamps = current;
+                }
+                for (Entry entry : ENTRIES.values()) {
+                    if (changed.contains(entry.key.file())) {
+                        reload(entry);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("Corpus watcher stopped");
+        }
+    }
+
+    private static void collect(WatchKey key, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path name) {
+                changed.add(directory.resolve(name));
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * @return the size and modification time of the changed files that back a cached corpus
+     */
+    private static Map<Path, Stamp> stamp(Set<Path> changed) {
+        Map<Path, Stamp> stamps = new HashMap<>();
+        for (Key key : ENTRIES.keySet()) {
+            if (changed.contains(key.file())) {
+                stamps.put(key.file(), Stamp.of(key.file()));
+            }
+        }
+        return stamps;
+    }
+
+    private record Key(Path file, int length) {
+    }
+
+    /**
+     * Size and modification time of a file; both -1 when it cannot be read.
+     */
+    private record Stamp(long size, long modified) {
+
+        static Stamp of(Path file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return new Stamp(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+            } catch (IOException e) {
+                return new Stamp(-1, -1);
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        final Key key;
+
+        /**
+         * The published snapshot; replaced whole, never modified.
+         */
+        volatile GameCorpus corpus;
+
+        /**
+         * Written only by the watcher thread.
+         */
+        volatile int reloads;
+
+        Entry(Key key, GameCorpus corpus) {
+            this.key = key;
+            this.corpus = corpus;
+        }
+    }
+}
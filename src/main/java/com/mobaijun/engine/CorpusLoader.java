@@ -0,0 +1,238 @@
+package com.mobaijun.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Description: [streaming, parallel equations file loader]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 03:40]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Reads an equations file, one equation per line, straight into packed equations
+ * ({@link Symbols}) without making a {@code String} per line. The file is split into segments on
+ * line boundaries, and each segment is memory-mapped and parsed by its own fork/join task. The
+ * segments are then joined in file order and deduplicated through a {@link LongIntMap}, so the
+ * result is the distinct equations in order of first appearance, like reading the lines into a
+ * {@code LinkedHashSet}.
+ * <p>
+ * The file is read as ASCII: a UTF-8 byte order mark, surrounding spaces and tabs, and the
+ * {@code \r} of Windows line ends are ignored. Blank lines are skipped silently. Lines of another
+ * length or with other characters are skipped and counted in the log.
+ */
+@Slf4j
+public final class CorpusLoader {
+
+    /**
+     * Segments are not made smaller than this, so that small files are parsed by one task.
+     */
+    static final int MIN_SEGMENT_BYTES = 1 << 20;
+
+    /**
+     * Largest segment; a mapping cannot exceed 2 GB.
+     */
+    static final int MAX_SEGMENT_BYTES = 1 << 30;
+
+    /**
+     * Bytes of a segment parsed at a time; one more than this is allocated for the final line break.
+     */
+    private static final int BLOCK_BYTES = 1 << 16;
+
+    private CorpusLoader() {
+    }
+
+    /**
+     * Loads a file on the common pool.
+     *
+     * @see #load(Path, int, ForkJoinPool)
+     */
+    public static long[] load(Path file, int length) throws IOException {
+        return load(file, length, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Loads the distinct equations of the given length from a file.
+     *
+     * @param file   the equations file
+     * @param length number of symbols per equation
+     * @param pool   pool the segments are parsed on
+     * @return the packed equations, in order of first appearance
+     */
+    public static long[] load(Path file, int length, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] cuts = split(channel, channel.size(), pool.getParallelism());
+            List<ParseTask> tasks = new ArrayList<>(cuts.length - 1);
+            for (int i = 0; i + 1 < cuts.length; i++) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, cuts[i], cuts[i + 1] - cuts[i]);
+                tasks.add(new ParseTask(segment, length, i == 0));
+            }
+            for (ParseTask task : tasks) {
+                pool.execute(task);
+            }
+            List<LongList> parsed = new ArrayList<>(tasks.size());
+            int total = 0;
+            int skipped = 0;
+            for (ParseTask task : tasks) {
+                LongList equations = task.join();
+                parsed.add(equations);
+                total += equations.size();
+                skipped += task.skipped;
+            }
+            if (skipped > 0) {
+                log.warn("Skipped {} lines of {} that are not {}-symbol equations", skipped, file, length);
+            }
+            return distinct(parsed, total);
+        }
+    }
+
+    /**
+     * Cuts the file into about {@code 4 * parallelism} segments, each ending right after a line break
+     * or at the end of the file.
+     *
+     * @return the offsets where segments start, followed by the size of the file
+     */
+    private static long[] split(FileChannel channel, long size, int parallelism) throws IOException {
+        long target = Math.max(MIN_SEGMENT_BYTES, size / (4L * Math.max(1, parallelism)) + 1);
+        target = Math.min(target, MAX_SEGMENT_BYTES - 4096);
+        LongList cuts = new LongList();
+        cuts.add(0);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + target);
+            // Move the cut forward to just after the next line break
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                if (read <= 0) {
+                    end = size;
+                    break;
+                }
+                int newline = indexOf(probe, read);
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += read;
+            }
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("A line of the equations file is longer than 2 GB");
+            }
+            cuts.add(end);
+            start = end;
+        }
+        return cuts.toArray();
+    }
+
+    private static int indexOf(ByteBuffer probe, int limit) {
+        for (int i = 0; i < limit; i++) {
+            if (probe.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long[] distinct(List<LongList> parsed, int total) {
+        // Starts small and grows with the distinct equations rather than with the lines
+        LongIntMap seen = new LongIntMap(Math.min(total, 1 << 16));
+        long[] result = new long[total];
+        int size = 0;
+        for (LongList equations : parsed) {
+            for (int i = 0; i < equations.size(); i++) {
+                long equation = equations.get(i);
+                if (seen.putIfAbsent(equation, size) == size) {
+                    result[size++] = equation;
+                }
+            }
+        }
+        return size == total ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Parses the lines of one mapped segment into packed equations.
+     */
+    private static final class ParseTask extends RecursiveTask<LongList> {
+
+        private final ByteBuffer buffer;
+
+        private final int length;
+
+        private final boolean first;
+
+        /**
+         * Lines that are not equations of the length; read after the task is joined.
+         */
+        int skipped;
+
+        ParseTask(ByteBuffer buffer, int length, boolean first) {
+            this.buffer = buffer;
+            this.length = length;
+            this.first = first;
+        }
+
+        @Override
+        protected LongList compute() {
+            int limit = buffer.limit();
+            LongList equations = new LongList(Math.max(64, limit / (length + 1)));
+            int from = 0;
+            if (first && limit >= 3 && (buffer.get(0) & 0xFF) == 0xEF && (buffer.get(1) & 0xFF) == 0xBB
+                    && (buffer.get(2) & 0xFF) == 0xBF) {
+                from = 3;
+            }
+            // One pass over the bytes, packing each line while looking for its end. The mapping is
+            // copied a block at a time, which the JIT compiles to a much tighter loop than single gets
+            byte[] block = new byte[BLOCK_BYTES + 1];
+            long packed = Symbols.EMPTY_PACKED;
+            int symbols = 0;
+            boolean trailing = false;
+            boolean malformed = false;
+            for (int offset = from; offset <= limit; offset += BLOCK_BYTES) {
+                int count = Math.min(BLOCK_BYTES, limit - offset);
+                buffer.get(offset, block, 0, count);
+                if (offset + count == limit) {
+                    // A line break after the end of the segment closes its last line
+                    block[count++] = '\n';
+                }
+                for (int i = 0; i < count; i++) {
+                    byte b = block[i];
+                    if (b == '\n') {
+                        if (malformed || (symbols != 0 && symbols != length)) {
+                            skipped++;
+                        } else if (symbols == length) {
+                            equations.add(packed);
+                        }
+                        packed = Symbols.EMPTY_PACKED;
+                        symbols = 0;
+                        trailing = false;
+                        malformed = false;
+                    } else if (isBlank(b)) {
+                        trailing = symbols > 0;
+                    } else if (!malformed) {
+                        int code = Symbols.code((char) (b & 0xFF));
+                        if (code < 0 || trailing || symbols == length) {
+                            malformed = true;
+                        } else {
+                            packed = Symbols.with(packed, symbols++, code);
+                        }
+                    }
+                }
+            }
+            return equations;
+        }
+
+        private static boolean isBlank(byte b) {
+            return b == ' ' || b == '\t' || b == '\r';
+        }
+    }
+}
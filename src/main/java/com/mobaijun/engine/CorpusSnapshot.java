@@ -0,0 +1,245 @@
+package com.mobaijun.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Description: [binary corpus snapshot]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 04:20]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * A precompiled {@link GameCorpus} in one file, so that a launch maps it instead of parsing the
+ * equations file and indexing it again. The file is a 48-byte little-endian header followed by
+ * three sections, each starting on an 8-byte boundary:
+ * <ol>
+ *     <li>the equations, laid out as {@link EquationStore#write} does;</li>
+ *     <li>the {@link CandidateIndex} bitsets, as {@link CandidateIndex#writeBits(LongBuffer)} does;</li>
+ *     <li>optionally, the words of the {@link ValidityBitmap} of the length.</li>
+ * </ol>
+ * The header holds {@link #MAGIC}, {@link #VERSION}, the length, the number of equations, the
+ * flags, the number of valid equations of the bitmap, a CRC32C of everything after the header,
+ * which {@link #load(Path, BoardConfig, Path)} checks before trusting a byte of it, and the size
+ * and CRC32C of the equations file the snapshot was built from. A snapshot loaded for a source
+ * file whose size or checksum differs is stale and rejected, so an edited or regenerated equations
+ * file is never shadowed by an old snapshot. The equations and the bitmap are used in place in the
+ * mapping; only the bitsets are copied onto the heap, where the candidate filter reads them as
+ * arrays.
+ * <p>
+ * Snapshots are written offline with {@link #main(String[])}, or from the text corpus by
+ * {@code TextUtil.readCorpus} whenever the configured one is missing or stale.
+ */
+@Slf4j
+public final class CorpusSnapshot {
+
+    /**
+     * File magic, "NCSN".
+     */
+    public static final int MAGIC = 0x4E43534E;
+
+    public static final int VERSION = 2;
+
+    /**
+     * System property naming the snapshot file to load, or to write when it does not exist yet.
+     */
+    public static final String PATH_PROPERTY = "numberle.snapshot";
+
+    /**
+     * Flag set when the snapshot carries the validity bitmap.
+     */
+    public static final int WITH_VALIDITY = 1;
+
+    private static final int HEADER_BYTES = 48;
+
+    private static final int CHECKSUM_OFFSET = 24;
+
+    private static final int SOURCE_SIZE_OFFSET = 32;
+
+    private static final int SOURCE_CHECKSUM_OFFSET = 40;
+
+    private CorpusSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the corpus, with the validity bitmap of its length when there is one.
+     *
+     * @param source the equations file the corpus was read from, or null if it has none
+     */
+    public static void write(GameCorpus corpus, Path file, Path source) throws IOException {
+        write(corpus, file, source, corpus.getLength() <= ValidityBitmap.MAX_LENGTH);
+    }
+
+    /**
+     * Writes a snapshot of the corpus. The file is written next to its final name and moved over
+     * it, so a reader never maps a half-written snapshot.
+     *
+     * @param source   the equations file the corpus was read from, or null if it has none
+     * @param validity whether to include the validity bitmap, 21 MB for the classic board
+     * @Pre !validity || corpus.getLength() <= ValidityBitmap.MAX_LENGTH
+     */
+    public static void write(GameCorpus corpus, Path file, Path source, boolean validity) throws IOException {
+        int length = corpus.getLength();
+        EquationStore store = corpus.getStore();
+        ValidityBitmap bitmap = validity ? ValidityBitmap.forLength(length) : null;
+        long equationBytes = align(store.size() * (long) EquationStore.width(length));
+        long bitWords = CandidateIndex.bitWords(length, store.size());
+        long size = HEADER_BYTES + equationBytes + bitWords * Long.BYTES
+                + (bitmap != null ? ValidityBitmap.wordCount(length) * (long) Long.BYTES : 0);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A snapshot of " + store.size() + " equations would exceed 2 GB");
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(length).putInt(store.size())
+                .putInt(bitmap != null ? WITH_VALIDITY : 0).putInt(bitmap != null ? bitmap.getCount() : 0);
+        buffer.position(HEADER_BYTES);
+        buffer.put(store.bytes());
+        buffer.position(HEADER_BYTES + (int) equationBytes);
+        LongBuffer bits = buffer.asLongBuffer();
+        corpus.getIndex().writeBits(bits);
+        if (bitmap != null) {
+            bits.put(bitmap.words());
+        }
+        buffer.position(HEADER_BYTES).limit((int) size);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer);
+        buffer.putInt(CHECKSUM_OFFSET, (int) crc.getValue());
+        if (source != null) {
+            buffer.putLong(SOURCE_SIZE_OFFSET, Files.size(source)).putInt(SOURCE_CHECKSUM_OFFSET, checksum(source));
+        } else {
+            buffer.putLong(SOURCE_SIZE_OFFSET, -1);
+        }
+        buffer.clear();
+
+        Path absolute = file.toAbsolutePath();
+        if (absolute.getParent() != null) {
+            Files.createDirectories(absolute.getParent());
+        }
+        Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Maps a snapshot file.
+     *
+     * @param board  the board the corpus is played on
+     * @param source the equations file the snapshot must have been built from, or null to accept
+     *               any snapshot
+     * @throws IllegalArgumentException if the file is not a valid snapshot of the board's length,
+     *                                  or was built from another version of the source
+     */
+    public static GameCorpus load(Path file, BoardConfig board, Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not a corpus snapshot: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            GameCorpus corpus = read(buffer, board, file.toString());
+            if (source != null && (buffer.getLong(SOURCE_SIZE_OFFSET) != Files.size(source)
+                    || buffer.getInt(SOURCE_CHECKSUM_OFFSET) != checksum(source))) {
+                throw new IllegalArgumentException("Snapshot " + file + " is stale: " + source + " changed since");
+            }
+            return corpus;
+        }
+    }
+
+    /**
+     * @return the CRC32C of a file's bytes
+     */
+    static int checksum(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CRC32C crc = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+            return (int) crc.getValue();
+        }
+    }
+
+    private static GameCorpus read(ByteBuffer buffer, BoardConfig board, String source) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a corpus snapshot: " + source);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Snapshot " + source + " has version " + buffer.getInt(4)
+                    + ", expected " + VERSION);
+        }
+        int length = buffer.getInt(8);
+        int count = buffer.getInt(12);
+        int flags = buffer.getInt(16);
+        int validCount = buffer.getInt(20);
+        if (length != board.length()) {
+            throw new IllegalArgumentException("Snapshot " + source + " is for length " + length
+                    + ", not " + board.length());
+        }
+        boolean validity = (flags & WITH_VALIDITY) != 0;
+        if (count < 0 || (validity && length > ValidityBitmap.MAX_LENGTH)) {
+            throw new IllegalArgumentException("Corrupt corpus snapshot: " + source);
+        }
+        long equationBytes = align(count * (long) EquationStore.width(length));
+        long bitWords = CandidateIndex.bitWords(length, count);
+        long validityWords = validity ? ValidityBitmap.wordCount(length) : 0;
+        if (buffer.limit() != HEADER_BYTES + equationBytes + (bitWords + validityWords) * Long.BYTES) {
+            throw new IllegalArgumentException("Truncated corpus snapshot: " + source);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(HEADER_BYTES));
+        if ((int) crc.getValue() != buffer.getInt(CHECKSUM_OFFSET)) {
+            throw new IllegalArgumentException("Checksum mismatch in corpus snapshot: " + source);
+        }
+
+        int bitsStart = HEADER_BYTES + (int) equationBytes;
+        EquationStore store = EquationStore.wrap(buffer.slice(HEADER_BYTES, count * EquationStore.width(length)), length);
+        LongBuffer words = buffer.slice(bitsStart, buffer.limit() - bitsStart).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        CandidateIndex index = new CandidateIndex(store, words);
+        if (validity) {
+            ValidityBitmap.share(ValidityBitmap.wrap(length, validCount, words.slice()));
+        }
+        return new GameCorpus(store, board, index);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    /**
+     * Offline entry point: {@code CorpusSnapshot equations.txt [output] [length]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: CorpusSnapshot <equations file> [output] [length]");
+            return;
+        }
+        int length = args.length > 2 ? Integer.parseInt(args[2]) : BoardConfig.CLASSIC.length();
+        Path output = Path.of(args.length > 1 ? args[1] : "equations-" + length + ".snapshot");
+        long start = System.nanoTime();
+        BoardConfig board = BoardConfig.ofLength(length);
+        Path source = Path.of(args[0]);
+        GameCorpus corpus = new GameCorpus(CorpusLoader.load(source, length), board);
+        write(corpus, output, source);
+        log.info("Wrote {} equations of length {} into {} ({} bytes) in {} ms", corpus.size(), length, output,
+                Files.size(output), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,341 @@
+package com.mobaijun.engine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Description: [exhaustive equation generator]
+ * Author: [mobaijun]
+ * Date: [2026/10/17 21:50]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Enumerates every valid equation of a given length over the {@code 0-9 + - * / =} alphabet.
+ * A valid equation has exactly one '=', at least one operator, well-formed sides (no unary
+ * signs, no leading zeros) and both sides equal as exact fractions, i.e. everything that
+ * {@link ExpressionEvaluator#isBalanced(char[], int, int)} and the game's operator check accept.
+ * <p>
+ * {@link #generate(int)} joins the sides held in a {@link ValueIndex}, which costs time in
+ * proportion to the output. {@link #generateBySearch(int, ForkJoinPool)} is the direct search
+ * kept as a cross-check: a depth-first walk over the grammar, so an invalid prefix such as {@code "1+*"}
+ * or {@code "05"} is cut off as soon as it appears instead of being completed to full length.
+ * The left side is evaluated once, when '=' is placed, and only the right side is evaluated at
+ * the leaves. The first {@link #SPLIT_DEPTH} symbols are fanned out as fork/join tasks.
+ * <p>
+ * Both enumerate every equation, which stops being practical past 8 symbols. Longer boards use
+ * {@link #sample(int, int, long)}, which draws random left sides and keeps those whose integer
+ * value exactly fills the right side.
+ */
+@Slf4j
+public final class EquationGenerator {
+
+    /**
+     * The symbols an equation is made of.
+     */
+    public static final char[] ALPHABET = Symbols.ALPHABET;
+
+    /**
+     * The binary operators, in alphabet order.
+     */
+    private static final char[] OPERATORS = "+-*/".toCharArray();
+
+    /**
+     * Prefix length up to which the search forks new tasks.
+     */
+    private static final int SPLIT_DEPTH = 2;
+
+    /**
+     * Random left sides {@link #sample(int, int, long)} draws per requested equation at most.
+     */
+    private static final int MAX_SAMPLE_ATTEMPTS = 64;
+
+    private EquationGenerator() {
+    }
+
+    /**
+     * Generates every valid equation of the given length by joining equal-valued sides.
+     *
+     * @Pre length >= 3
+     * @Post Returns the equations sorted and free of duplicates.
+     */
+    public static List<String> generate(int length) {
+        assert length >= 3 : "An equation needs at least three symbols";
+        long[] packed = ValueIndex.forEquationLength(length).equations(length);
+        String[] equations = new String[packed.length];
+        Arrays.parallelSetAll(equations, i -> Symbols.toString(packed[i], length));
+        return sortDistinct(equations);
+    }
+
+    /**
+     * Generates every valid equation of the given length by searching the grammar on the given pool.
+     *
+     * @Pre length >= 3, pool is not null
+     * @Post Returns the equations sorted and free of duplicates.
+     */
+    public static List<String> generateBySearch(int length, ForkJoinPool pool) {
+        assert length >= 3 : "An equation needs at least three symbols";
+        List<String> equations = pool.invoke(new SearchTask(new char[length], 0));
+        return sortDistinct(equations.toArray(new String[0]));
+    }
+
+    /**
+     * Draws up to {@code count} distinct equations of the form {@code expression=number}, from a
+     * seeded generator so the same arguments always give the same sample.
+     *
+     * @Pre length >= 5, count >= 0
+     * @Post Returns at most count equations, sorted and free of duplicates; fewer when the length
+     * has fewer equations of that form than {@link #MAX_SAMPLE_ATTEMPTS} per equation can find.
+     */
+    public static List<String> sample(int length, int count, long seed) {
+        assert length >= 5 : "A sampled equation needs at least five symbols";
+        SplittableRandom random = new SplittableRandom(seed);
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        char[] buffer = new char[length];
+        Set<String> found = new HashSet<>();
+        for (long attempt = (long) count * MAX_SAMPLE_ATTEMPTS; attempt > 0 && found.size() < count; attempt--) {
+            // The left side needs at least "d+d", the right side at least one digit
+            int right = 1 + random.nextInt(length - 4);
+            int left = length - 1 - right;
+            fillExpression(buffer, left, random);
+            if (!evaluator.evaluate(buffer, 0, left) || !evaluator.isInteger() || evaluator.getNumerator() < 0) {
+                continue;
+            }
+            String value = Long.toString(evaluator.getNumerator());
+            if (value.length() == right) {
+                buffer[left] = '=';
+                value.getChars(0, right, buffer, left + 1);
+                found.add(new String(buffer));
+            }
+        }
+        return sortDistinct(found.toArray(new String[0]));
+    }
+
+    /**
+     * Fills {@code buffer[0, length)} with a random well-formed expression holding at least one
+     * operator: numbers of mostly one to three digits without leading zeros, joined by binary operators.
+     */
+    private static void fillExpression(char[] buffer, int length, SplittableRandom random) {
+        int position = 0;
+        while (position < length) {
+            int remaining = length - position;
+            // The first number leaves room for an operator, and no number leaves a lone operator
+            int longest = position == 0 ? remaining - 2 : remaining;
+            int digits = 1 + random.nextInt(Math.min(3, longest));
+            if (remaining - digits == 1) {
+                digits++;
+            }
+            buffer[position++] = (char) ((digits > 1 ? '1' + random.nextInt(9) : '0' + random.nextInt(10)));
+            for (int i = 1; i < digits; i++) {
+                buffer[position++] = (char) ('0' + random.nextInt(10));
+            }
+            if (position < length) {
+                buffer[position++] = OPERATORS[random.nextInt(OPERATORS.length)];
+            }
+        }
+    }
+
+    private static List<String> sortDistinct(String[] sorted) {
+        Arrays.parallelSort(sorted);
+        List<String> result = new ArrayList<>(sorted.length);
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || !sorted[i].equals(sorted[i - 1])) {
+                result.add(sorted[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the equations one per line as UTF-8.
+     */
+    public static void write(List<String> equations, Path output) throws IOException {
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            for (String equation : equations) {
+                writer.write(equation);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Offline entry point: {@code EquationGenerator [length] [output]}.
+     */
+    public static void main(String[] args) throws IOException {
+        int length = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        Path output = Path.of(args.length > 1 ? args[1] : "equations-" + length + ".txt");
+        long start = System.nanoTime();
+        List<String> equations = generate(length);
+        write(equations, output);
+        log.info("Generated {} equations of length {} into {} in {} ms", equations.size(), length, output,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Searches every completion of a fixed prefix.
+     */
+    private static final class SearchTask extends RecursiveTask<List<String>> {
+
+        private final char[] prefix;
+
+        private final int depth;
+
+        SearchTask(char[] prefix, int depth) {
+            this.prefix = prefix;
+            this.depth = depth;
+        }
+
+        @Override
+        protected List<String> compute() {
+            if (depth < SPLIT_DEPTH) {
+                List<SearchTask> children = new ArrayList<>();
+                for (char symbol : ALPHABET) {
+                    char[] child = prefix.clone();
+                    child[depth] = symbol;
+                    if (new Search(child).acceptsPrefix(depth + 1)) {
+                        children.add(new SearchTask(child, depth + 1));
+                    }
+                }
+                invokeAll(children);
+                List<String> result = new ArrayList<>();
+                for (SearchTask child : children) {
+                    result.addAll(child.join());
+                }
+                return result;
+            }
+            Search search = new Search(prefix);
+            search.resume(depth);
+            return search.found;
+        }
+    }
+
+    /**
+     * Sequential depth-first search over one buffer. Not thread-safe.
+     */
+    private static final class Search {
+
+        private final char[] buffer;
+
+        private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+        private final List<String> found = new ArrayList<>();
+
+        Search(char[] buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Checks whether {@code buffer[0, length)} can still be completed to a valid equation.
+         */
+        boolean acceptsPrefix(int length) {
+            int equalIndex = -1;
+            for (int i = 0; i < length; i++) {
+                char c = buffer[i];
+                char previous = i == 0 ? '=' : buffer[i - 1];
+                if (isDigit(c)) {
+                    // A zero may not be followed by another digit of the same number
+                    if (i >= 1 && previous == '0' && (i == 1 || !isDigit(buffer[i - 2]))) {
+                        return false;
+                    }
+                } else {
+                    if (!isDigit(previous)) {
+                        return false;
+                    }
+                    if (c == '=') {
+                        if (equalIndex >= 0) {
+                            return false;
+                        }
+                        equalIndex = i;
+                    }
+                }
+            }
+            return equalIndex >= 0 || buffer.length - length >= 2;
+        }
+
+        /**
+         * Continues the search from a prefix that {@link #acceptsPrefix(int)} accepted.
+         */
+        void resume(int position) {
+            int equalIndex = -1;
+            boolean hasOperator = false;
+            for (int i = 0; i < position; i++) {
+                if (buffer[i] == '=') {
+                    equalIndex = i;
+                } else if (!isDigit(buffer[i])) {
+                    hasOperator = true;
+                }
+            }
+            long leftNumerator = 0;
+            long leftDenominator = 1;
+            if (equalIndex >= 0) {
+                if (!evaluator.evaluate(buffer, 0, equalIndex)) {
+                    return;
+                }
+                leftNumerator = evaluator.getNumerator();
+                leftDenominator = evaluator.getDenominator();
+            }
+            search(position, equalIndex, hasOperator, leftNumerator, leftDenominator);
+        }
+
+        private void search(int position, int equalIndex, boolean hasOperator, long leftNumerator, long leftDenominator) {
+            if (position == buffer.length) {
+                if (hasOperator && evaluator.evaluate(buffer, equalIndex + 1, buffer.length)
+                        && evaluator.getNumerator() == leftNumerator && evaluator.getDenominator() == leftDenominator) {
+                    found.add(new String(buffer));
+                }
+                return;
+            }
+            int remaining = buffer.length - position;
+            char previous = position == 0 ? '=' : buffer[position - 1];
+            boolean afterDigit = isDigit(previous);
+            boolean loneZero = previous == '0' && (position == 1 || !isDigit(buffer[position - 2]));
+
+            // Digits
+            if (!loneZero) {
+                // Without '=' yet, at least "=d" must still fit after this digit
+                if (equalIndex >= 0 || remaining >= 3) {
+                    for (char d = '0'; d <= '9'; d++) {
+                        buffer[position] = d;
+                        search(position + 1, equalIndex, hasOperator, leftNumerator, leftDenominator);
+                    }
+                }
+            }
+            if (!afterDigit || remaining < 2) {
+                return;
+            }
+            // Operators need a digit after them, and '=' still has to fit if it is missing
+            if (equalIndex >= 0 || remaining >= 4) {
+                for (char op : OPERATORS) {
+                    buffer[position] = op;
+                    search(position + 1, equalIndex, true, leftNumerator, leftDenominator);
+                }
+            }
+            // '=' closes the left side, which is evaluated exactly once here
+            if (equalIndex < 0 && (hasOperator || remaining >= 4)) {
+                if (evaluator.evaluate(buffer, 0, position)) {
+                    buffer[position] = '=';
+                    search(position + 1, position, hasOperator,
+                            evaluator.getNumerator(), evaluator.getDenominator());
+                }
+            }
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+}
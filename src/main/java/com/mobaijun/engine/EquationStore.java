@@ -0,0 +1,155 @@
+package com.mobaijun.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.LongConsumer;
+
+/**
+ * Description: [packed off-heap equation store]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 04:00]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * The equations of a corpus, 4 bits per symbol, back to back in a little-endian {@link ByteBuffer}:
+ * an {@code int} per equation up to 8 symbols, a {@code long} above, so a classic equation takes
+ * 4 bytes instead of the 50-odd of a {@code String}. {@link #of(long[], int)} copies into a direct
+ * buffer, which keeps the corpus off the Java heap altogether; {@link #wrap(ByteBuffer, int)}
+ * reads equations already in that layout, for instance from a memory-mapped file.
+ * <p>
+ * Ids are positions in the store. {@link #packed(int)} returns the {@link Symbols} form the
+ * engine scores with, and {@link #text(int)} makes a {@code String} for the UI. Read-only and
+ * thread-safe: only absolute reads are used.
+ */
+public final class EquationStore {
+
+    /**
+     * Longest equation stored in an {@code int}.
+     */
+    public static final int INT_LENGTH = 8;
+
+    /**
+     * Empty positions 8 to 15, restored above an {@code int}-stored equation.
+     */
+    private static final long HIGH_EMPTY = -1L << 32;
+
+    private final ByteBuffer buffer;
+
+    private final int length;
+
+    private final int size;
+
+    private final boolean narrow;
+
+    private EquationStore(ByteBuffer buffer, int length) {
+        this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        this.length = length;
+        this.narrow = length <= INT_LENGTH;
+        this.size = this.buffer.capacity() / width(length);
+    }
+
+    /**
+     * Copies packed equations into a new direct store.
+     *
+     * @param packed equations packed by {@link Symbols}
+     * @param length number of symbols per equation
+     */
+    public static EquationStore of(long[] packed, int length) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(packed.length * width(length)).order(ByteOrder.LITTLE_ENDIAN);
+        write(packed, length, buffer);
+        buffer.flip();
+        return new EquationStore(buffer, length);
+    }
+
+    /**
+     * Reads the equations between the buffer's position and limit, laid out as {@link #write} does.
+     * The buffer is not copied.
+     *
+     * @Pre buffer.remaining() is a multiple of width(length)
+     */
+    public static EquationStore wrap(ByteBuffer buffer, int length) {
+        if (buffer.remaining() % width(length) != 0) {
+            throw new IllegalArgumentException("A store of " + length + "-symbol equations holds "
+                    + width(length) + "-byte entries, not " + buffer.remaining() + " bytes");
+        }
+        return new EquationStore(buffer, length);
+    }
+
+    /**
+     * Appends packed equations to a buffer in store layout, little-endian, from its position on.
+     */
+    public static void write(long[] packed, int length, ByteBuffer buffer) {
+        ByteBuffer out = buffer.order() == ByteOrder.LITTLE_ENDIAN ? buffer
+                : buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (length <= INT_LENGTH) {
+            for (long equation : packed) {
+                out.putInt((int) equation);
+            }
+        } else {
+            for (long equation : packed) {
+                out.putLong(equation);
+            }
+        }
+        if (out != buffer) {
+            buffer.position(out.position());
+        }
+    }
+
+    /**
+     * @return bytes per equation of the given length
+     */
+    public static int width(int length) {
+        return length <= INT_LENGTH ? Integer.BYTES : Long.BYTES;
+    }
+
+    /**
+     * @return the equation with the given id, packed by {@link Symbols}
+     */
+    public long packed(int id) {
+        if (narrow) {
+            return (buffer.getInt(id << 2) & 0xFFFFFFFFL) | HIGH_EMPTY;
+        }
+        return buffer.getLong(id << 3);
+    }
+
+    /**
+     * @return the equation with the given id as text; meant for the UI boundary only
+     */
+    public String text(int id) {
+        return Symbols.toString(packed(id), length);
+    }
+
+    /**
+     * Hands every packed equation to the consumer in id order.
+     */
+    public void forEach(LongConsumer consumer) {
+        for (int id = 0; id < size; id++) {
+            consumer.accept(packed(id));
+        }
+    }
+
+    /**
+     * @return a heap copy of the packed equations, for building indexes
+     */
+    public long[] toArray() {
+        long[] packed = new long[size];
+        for (int id = 0; id < size; id++) {
+            packed[id] = packed(id);
+        }
+        return packed;
+    }
+
+    /**
+     * @return a read-only view of the stored bytes, positioned at the first equation
+     */
+    public ByteBuffer bytes() {
+        return buffer.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,97 @@
+package com.mobaijun.engine;
+
+/**
+ * Description: [guess validator of a board]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 03:25]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Tells whether a guess is a valid equation of a given length, with the rules of
+ * {@link EquationGenerator}. Up to {@link ValidityBitmap#MAX_LENGTH} symbols this is one lookup in
+ * the shared {@link ValidityBitmap}; longer boards would need 15^n bits, so their guesses are
+ * evaluated instead, which takes no memory beyond the evaluator's fixed stacks and no allocation.
+ * Instances are not thread-safe; keep one per game or thread.
+ */
+public final class EquationValidator {
+
+    private final int length;
+
+    /**
+     * Null on boards longer than {@link ValidityBitmap#MAX_LENGTH}.
+     */
+    private final ValidityBitmap bitmap;
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    /**
+     * @Pre 3 <= length <= Symbols.MAX_LENGTH
+     */
+    public EquationValidator(int length) {
+        this.length = length;
+        this.bitmap = length <= ValidityBitmap.MAX_LENGTH ? ValidityBitmap.forLength(length) : null;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return true if {@code guess[from, from + length)} is a valid equation
+     */
+    public boolean isValid(char[] guess, int from) {
+        if (bitmap != null) {
+            return bitmap.contains(guess, from);
+        }
+        return hasOperator(guess, from) && evaluator.isBalanced(guess, from, from + length);
+    }
+
+    /**
+     * @return true if the ASCII bytes {@code guess[from, from + length)} form a valid equation
+     */
+    public boolean isValid(byte[] guess, int from) {
+        if (bitmap != null) {
+            return bitmap.contains(guess, from);
+        }
+        return hasOperator(guess, from) && evaluator.isBalanced(guess, from, from + length);
+    }
+
+    /**
+     * @return true if the text is a valid equation of this validator's length
+     */
+    public boolean isValid(CharSequence guess) {
+        if (guess.length() != length) {
+            return false;
+        }
+        if (bitmap != null) {
+            return bitmap.contains(guess);
+        }
+        for (int i = 0; i < length; i++) {
+            if (isOperator(guess.charAt(i))) {
+                return evaluator.isBalanced(guess);
+            }
+        }
+        return false;
+    }
+
+    private boolean hasOperator(char[] guess, int from) {
+        for (int i = from; i < from + length; i++) {
+            if (isOperator(guess[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasOperator(byte[] guess, int from) {
+        for (int i = from; i < from + length; i++) {
+            if (isOperator((char) guess[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOperator(char c) {
+        return c == '+' || c == '-' || c == '*' || c == '/';
+    }
+}
@@ -0,0 +1,304 @@
+package com.mobaijun.engine;
+
+/**
+ * Description: [allocation-free arithmetic evaluator]
+ * Author: [mobaijun]
+ * Date: [2026/10/17 21:30]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Evaluates expressions over the {@code 0-9 + - * /} alphabet directly on a {@code char[]},
+ * {@code byte[]} or {@link CharSequence} slice. The result is an exact reduced fraction, so
+ * {@code 7/2} is not silently truncated and {@code 1/3*3} is exactly {@code 1}.
+ * <p>
+ * The grammar is the Numberle one: numbers separated by binary operators, no unary signs and
+ * no leading zeros. Anything else (including division by zero and overflow) makes the
+ * expression invalid instead of throwing.
+ * <p>
+ * Operand and operator stacks live in fixed primitive arrays. With only two precedence levels
+ * and left associativity the operator stack never holds more than two entries, so the arrays
+ * are sized once and never grow. Instances are not thread-safe; keep one per model or thread.
+ */
+public final class ExpressionEvaluator {
+
+    /**
+     * Maximum stack depth needed for two precedence levels.
+     */
+    private static final int STACK_DEPTH = 4;
+
+    /**
+     * Maximum number of digits in a single number before it could overflow a long.
+     */
+    private static final int MAX_DIGITS = 18;
+
+    private final long[] numerators = new long[STACK_DEPTH];
+
+    private final long[] denominators = new long[STACK_DEPTH];
+
+    private final char[] operators = new char[STACK_DEPTH];
+
+    private int valueTop;
+
+    private int operatorTop;
+
+    private long number;
+
+    private int digits;
+
+    private boolean valid;
+
+    /**
+     * Result of the last successful evaluation.
+     */
+    private long numerator;
+
+    private long denominator = 1;
+
+    /**
+     * Evaluates the expression held in {@code expression[from, to)}.
+     *
+     * @return true if the slice is a well-formed expression, the value is then available through
+     * {@link #getNumerator()} and {@link #getDenominator()}
+     * @Pre 0 <= from <= to <= expression.length
+     * @Post Does not allocate.
+     */
+    public boolean evaluate(char[] expression, int from, int to) {
+        begin();
+        for (int i = from; i < to && valid; i++) {
+            accept(expression[i]);
+        }
+        return end();
+    }
+
+    /**
+     * Evaluates the ASCII expression held in {@code expression[from, to)}.
+     *
+     * @see #evaluate(char[], int, int)
+     */
+    public boolean evaluate(byte[] expression, int from, int to) {
+        begin();
+        for (int i = from; i < to && valid; i++) {
+            accept((char) expression[i]);
+        }
+        return end();
+    }
+
+    /**
+     * Evaluates the characters {@code expression[from, to)}.
+     *
+     * @see #evaluate(char[], int, int)
+     */
+    public boolean evaluate(CharSequence expression, int from, int to) {
+        begin();
+        for (int i = from; i < to && valid; i++) {
+            accept(expression.charAt(i));
+        }
+        return end();
+    }
+
+    /**
+     * Checks that {@code equation[from, to)} holds exactly one '=' and that both sides are
+     * well-formed expressions with the same exact value.
+     *
+     * @Pre 0 <= from <= to <= equation.length
+     * @Post Does not allocate.
+     */
+    public boolean isBalanced(char[] equation, int from, int to) {
+        int equalIndex = -1;
+        for (int i = from; i < to; i++) {
+            if (equation[i] == '=') {
+                if (equalIndex >= 0) {
+                    return false;
+                }
+                equalIndex = i;
+            }
+        }
+        if (equalIndex < 0 || !evaluate(equation, from, equalIndex)) {
+            return false;
+        }
+        long leftNumerator = numerator;
+        long leftDenominator = denominator;
+        return evaluate(equation, equalIndex + 1, to) && numerator == leftNumerator && denominator == leftDenominator;
+    }
+
+    /**
+     * ASCII variant of {@link #isBalanced(char[], int, int)}.
+     */
+    public boolean isBalanced(byte[] equation, int from, int to) {
+        int equalIndex = -1;
+        for (int i = from; i < to; i++) {
+            if (equation[i] == '=') {
+                if (equalIndex >= 0) {
+                    return false;
+                }
+                equalIndex = i;
+            }
+        }
+        if (equalIndex < 0 || !evaluate(equation, from, equalIndex)) {
+            return false;
+        }
+        long leftNumerator = numerator;
+        long leftDenominator = denominator;
+        return evaluate(equation, equalIndex + 1, to) && numerator == leftNumerator && denominator == leftDenominator;
+    }
+
+    /**
+     * {@link CharSequence} variant of {@link #isBalanced(char[], int, int)}.
+     */
+    public boolean isBalanced(CharSequence equation) {
+        int equalIndex = -1;
+        for (int i = 0; i < equation.length(); i++) {
+            if (equation.charAt(i) == '=') {
+                if (equalIndex >= 0) {
+                    return false;
+                }
+                equalIndex = i;
+            }
+        }
+        if (equalIndex < 0 || !evaluate(equation, 0, equalIndex)) {
+            return false;
+        }
+        long leftNumerator = numerator;
+        long leftDenominator = denominator;
+        return evaluate(equation, equalIndex + 1, equation.length())
+                && numerator == leftNumerator && denominator == leftDenominator;
+    }
+
+    /**
+     * @return the numerator of the last successful evaluation, carrying the sign
+     */
+    public long getNumerator() {
+        return numerator;
+    }
+
+    /**
+     * @return the denominator of the last successful evaluation, always positive
+     */
+    public long getDenominator() {
+        return denominator;
+    }
+
+    /**
+     * @return true if the last successful evaluation produced a whole number
+     */
+    public boolean isInteger() {
+        return denominator == 1;
+    }
+
+    private void begin() {
+        valueTop = 0;
+        operatorTop = 0;
+        number = 0;
+        digits = 0;
+        valid = true;
+    }
+
+    private void accept(char ch) {
+        if (ch >= '0' && ch <= '9') {
+            // "0" is a number, "05" is not
+            if (digits == MAX_DIGITS || (digits == 1 && number == 0)) {
+                valid = false;
+                return;
+            }
+            number = number * 10 + (ch - '0');
+            digits++;
+        } else if (ch == '+' || ch == '-' || ch == '*' || ch == '/') {
+            if (digits == 0) {
+                // Leading operator or two operators in a row
+                valid = false;
+                return;
+            }
+            pushNumber();
+            while (valid && operatorTop > 0 && precedence(operators[operatorTop - 1]) >= precedence(ch)) {
+                reduce();
+            }
+            operators[operatorTop++] = ch;
+        } else {
+            valid = false;
+        }
+    }
+
+    private boolean end() {
+        if (!valid || digits == 0) {
+            return false;
+        }
+        pushNumber();
+        while (valid && operatorTop > 0) {
+            reduce();
+        }
+        if (!valid) {
+            return false;
+        }
+        numerator = numerators[0];
+        denominator = denominators[0];
+        return true;
+    }
+
+    private void pushNumber() {
+        numerators[valueTop] = number;
+        denominators[valueTop] = 1;
+        valueTop++;
+        number = 0;
+        digits = 0;
+    }
+
+    private static int precedence(char operator) {
+        return operator == '*' || operator == '/' ? 2 : 1;
+    }
+
+    /**
+     * Pops one operator and two operands and pushes the reduced fraction.
+     */
+    private void reduce() {
+        char operator = operators[--operatorTop];
+        valueTop--;
+        long bn = numerators[valueTop];
+        long bd = denominators[valueTop];
+        long an = numerators[valueTop - 1];
+        long ad = denominators[valueTop - 1];
+        long n;
+        long d;
+        try {
+            switch (operator) {
+                case '+' -> {
+                    n = Math.addExact(Math.multiplyExact(an, bd), Math.multiplyExact(bn, ad));
+                    d = Math.multiplyExact(ad, bd);
+                }
+                case '-' -> {
+                    n = Math.subtractExact(Math.multiplyExact(an, bd), Math.multiplyExact(bn, ad));
+                    d = Math.multiplyExact(ad, bd);
+                }
+                case '*' -> {
+                    n = Math.multiplyExact(an, bn);
+                    d = Math.multiplyExact(ad, bd);
+                }
+                default -> {
+                    if (bn == 0) {
+                        valid = false;
+                        return;
+                    }
+                    n = Math.multiplyExact(an, bd);
+                    d = Math.multiplyExact(ad, bn);
+                }
+            }
+        } catch (ArithmeticException e) {
+            valid = false;
+            return;
+        }
+        if (d < 0) {
+            n = -n;
+            d = -d;
+        }
+        long g = gcd(Math.abs(n), d);
+        numerators[valueTop - 1] = n / g;
+        denominators[valueTop - 1] = d / g;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,268 @@
+package com.mobaijun.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Description: [off-heap guess x answer feedback matrix]
+ * Author: [mobaijun]
+ * Date: [2026/10/17 23:25]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Precomputed {@link FeedbackScorer} pattern of every guess against every answer, addressed by
+ * dense equation ids (the position of the equation in the corpus list it was built from). Cells
+ * are shorts up to length 10 (3^10 patterns) and ints above.
+ * <p>
+ * The cells never touch the Java heap: they live in memory-mapped file regions when a file is
+ * given, or in direct buffers otherwise. A single buffer is limited to 2 GB, so rows are split
+ * into chunks of at most {@link #CHUNK_BYTES}. Rows are filled in parallel; each row is written
+ * with absolute puts into its own range, so workers never share a position. The file starts with
+ * a {@link #HEADER_BYTES}-byte header: magic, version, length, guess count, answer count and
+ * cell width.
+ * <p>
+ * A square matrix of the corpus is read by the {@link Solver} in place of the scorer: build it
+ * offline with {@link #main(String[])} and name it with {@link #PATH_PROPERTY}.
+ */
+@Slf4j
+public final class FeedbackMatrix {
+
+    /**
+     * File magic, "NMBF".
+     */
+    public static final int MAGIC = 0x4E4D4246;
+
+    public static final int VERSION = 1;
+
+    public static final int HEADER_BYTES = 64;
+
+    /**
+     * System property naming a prebuilt matrix of the corpus for the solver to read.
+     */
+    public static final String PATH_PROPERTY = "numberle.matrix";
+
+    /**
+     * Cells compared with the scorer by {@link #matches(EquationStore)}.
+     */
+    private static final int PROBES = 64;
+
+    /**
+     * Upper bound of a single mapped or direct buffer.
+     */
+    private static final long CHUNK_BYTES = 1L << 30;
+
+    private final int length;
+
+    private final int guessCount;
+
+    private final int answerCount;
+
+    /**
+     * 2 for short cells, 4 for int cells.
+     */
+    private final int cellBytes;
+
+    private final int rowsPerChunk;
+
+    private final ByteBuffer[] chunks;
+
+    private FeedbackMatrix(int length, int guessCount, int answerCount, int cellBytes, ByteBuffer[] chunks) {
+        this.length = length;
+        this.guessCount = guessCount;
+        this.answerCount = answerCount;
+        this.cellBytes = cellBytes;
+        this.rowsPerChunk = rowsPerChunk(answerCount, cellBytes);
+        this.chunks = chunks;
+    }
+
+    /**
+     * Builds the square matrix of a corpus against itself; equation ids are list positions.
+     *
+     * @param file where to map the matrix, or null for anonymous direct memory
+     * @Pre the corpus is non-empty and every equation has the same length
+     */
+    public static FeedbackMatrix build(List<String> corpus, Path file) throws IOException {
+        long[] packed = new long[corpus.size()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = Symbols.pack(corpus.get(i));
+        }
+        return build(packed, packed, corpus.get(0).length(), file);
+    }
+
+    /**
+     * Builds the square matrix of a store against itself; equation ids are store positions.
+     *
+     * @param file where to map the matrix, or null for anonymous direct memory
+     */
+    public static FeedbackMatrix build(EquationStore store, Path file) throws IOException {
+        long[] packed = store.toArray();
+        return build(packed, packed, store.getLength(), file);
+    }
+
+    /**
+     * Builds the matrix of packed guesses against packed answers.
+     *
+     * @param file where to map the matrix, or null for anonymous direct memory
+     * @Pre 1 <= length <= 12
+     */
+    public static FeedbackMatrix build(long[] guesses, long[] answers, int length, Path file) throws IOException {
+        int cellBytes = FeedbackScorer.patternCount(length) <= 1 << 16 ? 2 : 4;
+        ByteBuffer[] chunks = file == null
+                ? allocate(guesses.length, answers.length, cellBytes)
+                : map(file, FileChannel.MapMode.READ_WRITE, guesses.length, answers.length, cellBytes, true);
+        FeedbackMatrix matrix = new FeedbackMatrix(length, guesses.length, answers.length, cellBytes, chunks);
+        if (file != null) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(length).putInt(guesses.length)
+                    .putInt(answers.length).putInt(cellBytes).flip();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(header, 0);
+            }
+        }
+        IntStream.range(0, guesses.length).parallel().forEach(g -> matrix.fillRow(g, guesses[g], answers));
+        if (file != null) {
+            for (ByteBuffer chunk : chunks) {
+                ((MappedByteBuffer) chunk).force();
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Maps a matrix written by {@link #build(long[], long[], int, Path)} read-only.
+     */
+    public static FeedbackMatrix load(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Read the whole header
+            }
+        }
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a feedback matrix: " + file);
+        }
+        int length = header.getInt(8);
+        int guessCount = header.getInt(12);
+        int answerCount = header.getInt(16);
+        int cellBytes = header.getInt(20);
+        if (size != HEADER_BYTES + (long) guessCount * answerCount * cellBytes) {
+            throw new IllegalArgumentException("Truncated feedback matrix: " + file);
+        }
+        ByteBuffer[] chunks = map(file, FileChannel.MapMode.READ_ONLY, guessCount, answerCount, cellBytes, false);
+        return new FeedbackMatrix(length, guessCount, answerCount, cellBytes, chunks);
+    }
+
+    /**
+     * Offline entry point: {@code FeedbackMatrix [corpus] [output] [length]}. The corpus is read as
+     * games read it, so the ids of the matrix are those of the game's corpus.
+     */
+    public static void main(String[] args) throws IOException {
+        Path corpus = Path.of(args.length > 0 ? args[0] : "equations.txt");
+        Path output = Path.of(args.length > 1 ? args[1] : "equations.matrix");
+        int length = args.length > 2 ? Integer.parseInt(args[2]) : BoardConfig.CLASSIC.length();
+        long start = System.nanoTime();
+        FeedbackMatrix matrix = build(EquationStore.of(CorpusLoader.load(corpus, length), length), output);
+        log.info("Wrote a {}x{} feedback matrix into {} in {} ms", matrix.guessCount, matrix.answerCount, output,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @return the packed feedback of guess {@code guess} against answer {@code answer}
+     */
+    public int get(int guess, int answer) {
+        ByteBuffer chunk = chunks[guess / rowsPerChunk];
+        int offset = ((guess % rowsPerChunk) * answerCount + answer) * cellBytes;
+        return cellBytes == 2 ? chunk.getShort(offset) & 0xFFFF : chunk.getInt(offset);
+    }
+
+    /**
+     * Tells whether this is the square matrix of a store: same length and size, and a spread of
+     * cells agreeing with the scorer, so a matrix built from another corpus is not mistaken for it.
+     */
+    public boolean matches(EquationStore store) {
+        int size = store.size();
+        if (length != store.getLength() || guessCount != size || answerCount != size) {
+            return false;
+        }
+        int probes = Math.min(PROBES, size);
+        for (int i = 0; i < probes; i++) {
+            // Evenly spaced cells of the anti-diagonal
+            int guess = (int) ((long) i * size / probes);
+            int answer = size - 1 - guess;
+            if (get(guess, answer) != FeedbackScorer.score(store.packed(guess), store.packed(answer), length)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getGuessCount() {
+        return guessCount;
+    }
+
+    public int getAnswerCount() {
+        return answerCount;
+    }
+
+    private void fillRow(int row, long guess, long[] answers) {
+        ByteBuffer chunk = chunks[row / rowsPerChunk];
+        int offset = (row % rowsPerChunk) * answerCount * cellBytes;
+        for (int a = 0; a < answers.length; a++, offset += cellBytes) {
+            int pattern = FeedbackScorer.score(guess, answers[a], length);
+            if (cellBytes == 2) {
+                chunk.putShort(offset, (short) pattern);
+            } else {
+                chunk.putInt(offset, pattern);
+            }
+        }
+    }
+
+    private static int rowsPerChunk(int answerCount, int cellBytes) {
+        long rowBytes = Math.max(1L, (long) answerCount * cellBytes);
+        if (rowBytes > CHUNK_BYTES) {
+            throw new IllegalArgumentException("A single row of " + answerCount + " answers does not fit a buffer");
+        }
+        return (int) (CHUNK_BYTES / rowBytes);
+    }
+
+    private static ByteBuffer[] allocate(int guessCount, int answerCount, int cellBytes) {
+        int rowsPerChunk = rowsPerChunk(answerCount, cellBytes);
+        ByteBuffer[] chunks = new ByteBuffer[Math.max(1, (guessCount + rowsPerChunk - 1) / rowsPerChunk)];
+        for (int c = 0; c < chunks.length; c++) {
+            int rows = Math.min(rowsPerChunk, guessCount - c * rowsPerChunk);
+            chunks[c] = ByteBuffer.allocateDirect(rows * answerCount * cellBytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return chunks;
+    }
+
+    private static ByteBuffer[] map(Path file, FileChannel.MapMode mode, int guessCount, int answerCount,
+                                    int cellBytes, boolean create) throws IOException {
+        int rowsPerChunk = rowsPerChunk(answerCount, cellBytes);
+        ByteBuffer[] chunks = new ByteBuffer[Math.max(1, (guessCount + rowsPerChunk - 1) / rowsPerChunk)];
+        try (FileChannel channel = create
+                ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ)) {
+            long rowBytes = (long) answerCount * cellBytes;
+            for (int c = 0; c < chunks.length; c++) {
+                int rows = Math.min(rowsPerChunk, guessCount - c * rowsPerChunk);
+                long position = HEADER_BYTES + (long) c * rowsPerChunk * rowBytes;
+                chunks[c] = channel.map(mode, position, rows * rowBytes).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,109 @@
+package com.mobaijun.engine;
+
+/**
+ * Description: [packed feedback scoring]
+ * Author: [mobaijun]
+ * Date: [2026/10/17 23:10]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Scores a guess against an answer, both packed by {@link Symbols}, and returns the whole
+ * feedback pattern as one base-3 integer: digit {@code i} (least significant first) is the state
+ * of position {@code i}, using the game's codes {@link #GREEN} 0, {@link #YELLOW} 1 and
+ * {@link #GREY} 2. Twelve positions need 3^12 = 531441 codes, so a pattern always fits an
+ * {@code int} and a length-7 pattern (3^7 = 2187) fits a {@code short}.
+ * <p>
+ * Repeated symbols are handled the usual way: greens are matched first, then each remaining
+ * guess symbol is yellow only while the answer still has an unmatched copy of it. The per-symbol
+ * counts live in the nibbles of a single {@code long}, so scoring allocates nothing and is safe
+ * to call from any thread.
+ */
+public final class FeedbackScorer {
+
+    /**
+     * Right symbol, right place.
+     */
+    public static final int GREEN = 0;
+
+    /**
+     * Symbol is in the answer, elsewhere.
+     */
+    public static final int YELLOW = 1;
+
+    /**
+     * Symbol is not in the answer, or all its copies are already matched.
+     */
+    public static final int GREY = 2;
+
+    /**
+     * Pattern of an exact match: every position green, for every length.
+     */
+    public static final int SOLVED = 0;
+
+    private static final int[] POWERS = new int[Symbols.MAX_LENGTH + 1];
+
+    static {
+        POWERS[0] = 1;
+        for (int i = 1; i < POWERS.length; i++) {
+            POWERS[i] = POWERS[i - 1] * 3;
+        }
+    }
+
+    private FeedbackScorer() {
+    }
+
+    /**
+     * Scores the first {@code length} symbols of {@code guess} against {@code answer}.
+     *
+     * @Pre 1 <= length <= 12
+     * @Post Returns the base-3 pattern, which is {@link #SOLVED} only for an exact match.
+     */
+    public static int score(long guess, long answer, int length) {
+        // Count the answer symbols that are not green, four bits per symbol
+        long unmatched = 0;
+        int pattern = 0;
+        for (int i = 0; i < length; i++) {
+            int a = Symbols.at(answer, i);
+            if (a != Symbols.at(guess, i)) {
+                unmatched += 1L << (a << 2);
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            int g = Symbols.at(guess, i);
+            int state;
+            if (g == Symbols.at(answer, i)) {
+                state = GREEN;
+            } else if (((unmatched >>> (g << 2)) & 0xF) != 0) {
+                unmatched -= 1L << (g << 2);
+                state = YELLOW;
+            } else {
+                state = GREY;
+            }
+            pattern += state * POWERS[i];
+        }
+        return pattern;
+    }
+
+    /**
+     * @return the state of the given position in a pattern
+     */
+    public static int stateAt(int pattern, int position) {
+        return pattern / POWERS[position] % 3;
+    }
+
+    /**
+     * @return the number of distinct patterns for the given length, 3^length
+     */
+    public static int patternCount(int length) {
+        return POWERS[length];
+    }
+
+    /**
+     * Expands a pattern into one state per position.
+     */
+    public static void unpack(int pattern, int length, int[] states) {
+        for (int i = 0; i < length; i++) {
+            states[i] = pattern % 3;
+            pattern /= 3;
+        }
+    }
+}
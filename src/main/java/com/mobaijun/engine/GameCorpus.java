@@ -0,0 +1,184 @@
+package com.mobaijun.engine;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Description: [shared, immutable equation corpus of a board]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 01:00]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Everything a game needs that does not change between games: the equations, their packed form,
+ * the {@link CandidateIndex} and the {@link Solver}. Building it costs about a megabyte and a few
+ * milliseconds for the classic corpus, so it is built once and shared by every game of the
+ * process; a game only keeps its own small mutable state next to it. Thread-safe.
+ * <p>
+ * Equations are held in an off-heap {@link EquationStore} only; {@link #getEquations()} turns one
+ * back into text when it is asked for, so the equations of a classic corpus take 4 bytes each.
+ */
+public final class GameCorpus {
+
+    /**
+     * Longest board whose corpus is generated exhaustively; about 1.5 s and 166k equations at 8.
+     */
+    public static final int EXHAUSTIVE_MAX_LENGTH = 8;
+
+    /**
+     * Number of equations sampled for longer boards.
+     */
+    public static final int SAMPLE_SIZE = 50_000;
+
+    private final BoardConfig board;
+
+    private final int length;
+
+    private final List<String> equations;
+
+    private final EquationStore store;
+
+    private final CandidateIndex index;
+
+    private final Solver solver;
+
+    /**
+     * @param equations the corpus, one equation per element
+     * @param length    number of symbols per equation
+     */
+    public GameCorpus(List<String> equations, int length) {
+        this(equations, BoardConfig.ofLength(length));
+    }
+
+    /**
+     * @param equations the corpus, one equation per element
+     * @param board     the board the equations are played on
+     */
+    public GameCorpus(List<String> equations, BoardConfig board) {
+        this(pack(equations), board);
+    }
+
+    /**
+     * @param packed the corpus packed by {@link Symbols}, one equation per element
+     * @param board  the board the equations are played on
+     */
+    public GameCorpus(long[] packed, BoardConfig board) {
+        this(EquationStore.of(packed, board.length()), board);
+    }
+
+    /**
+     * @param store the corpus; ids are store positions
+     * @param board the board the equations are played on
+     */
+    public GameCorpus(EquationStore store, BoardConfig board) {
+        this(store, board, null);
+    }
+
+    /**
+     * @param index the index of the store, or null to build it
+     */
+    GameCorpus(EquationStore store, BoardConfig board, CandidateIndex index) {
+        this(store, board, index, new Solver(store));
+    }
+
+    private GameCorpus(EquationStore store, BoardConfig board, CandidateIndex index, Solver solver) {
+        if (store.getLength() != board.length()) {
+            throw new IllegalArgumentException("A store of " + store.getLength()
+                    + "-symbol equations cannot be played on a " + board.length() + "-symbol board");
+        }
+        this.board = board;
+        this.length = board.length();
+        this.store = store;
+        this.equations = new Equations();
+        this.index = index != null ? index : new CandidateIndex(store);
+        this.solver = solver;
+    }
+
+    /**
+     * Shares the equations and the index of this corpus with a solver reading its patterns from a
+     * precomputed matrix.
+     *
+     * @param matrix the square feedback matrix of the corpus, see {@link FeedbackMatrix#matches}
+     * @throws IllegalArgumentException if the matrix was built from another corpus
+     */
+    public GameCorpus withMatrix(FeedbackMatrix matrix) {
+        return new GameCorpus(store, board, index,
+                new Solver(store, matrix, Solver.DEFAULT_BUDGET, ForkJoinPool.commonPool()));
+    }
+
+    /**
+     * Generates the corpus of a board: every equation up to {@link #EXHAUSTIVE_MAX_LENGTH}
+     * symbols, a fixed sample of {@link #SAMPLE_SIZE} above.
+     */
+    public static GameCorpus generate(BoardConfig board) {
+        int length = board.length();
+        List<String> equations = length <= EXHAUSTIVE_MAX_LENGTH
+                ? EquationGenerator.generate(length)
+                : EquationGenerator.sample(length, SAMPLE_SIZE, length);
+        return new GameCorpus(equations, board);
+    }
+
+    private static long[] pack(List<String> equations) {
+        long[] packed = new long[equations.size()];
+        int i = 0;
+        for (String equation : equations) {
+            packed[i++] = Symbols.pack(equation);
+        }
+        return packed;
+    }
+
+    public BoardConfig getBoard() {
+        return board;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return the equations, with constant-time random access; ids are list positions
+     */
+    public List<String> getEquations() {
+        return equations;
+    }
+
+    /**
+     * @return the packed equation with the given id
+     */
+    public long packed(int id) {
+        return store.packed(id);
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public EquationStore getStore() {
+        return store;
+    }
+
+    public CandidateIndex getIndex() {
+        return index;
+    }
+
+    public Solver getSolver() {
+        return solver;
+    }
+
+    /**
+     * Read-only text view of the packed equations.
+     */
+    private final class Equations extends AbstractList<String> implements RandomAccess {
+
+        @Override
+        public String get(int id) {
+            return store.text(id);
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+    }
+}
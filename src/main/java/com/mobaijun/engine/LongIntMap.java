@@ -0,0 +1,154 @@
+package com.mobaijun.engine;
+
+/**
+ * Description: [primitive long to int hash map]
+ * Author: [mobaijun]
+ * Date: [2026/10/17 22:40]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Open-addressing map with linear probing over parallel {@code long[]}/{@code int[]} arrays, so
+ * packed equations can be used as keys without boxing. Entries cannot be removed. Not
+ * thread-safe for writers; safe for concurrent readers once filled.
+ */
+public final class LongIntMap {
+
+    /**
+     * Marks a free slot. The key itself is tracked separately.
+     */
+    private static final long FREE = 0L;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int mask;
+
+    private int size;
+
+    private boolean hasFreeKey;
+
+    private int freeKeyValue;
+
+    public LongIntMap() {
+        this(16);
+    }
+
+    /**
+     * @param expected the number of entries the map should hold without resizing
+     */
+    public LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return the value mapped to the key, or {@code missing} if there is none
+     */
+    public int get(long key, int missing) {
+        if (key == FREE) {
+            return hasFreeKey ? freeKeyValue : missing;
+        }
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == key) {
+                return values[slot];
+            }
+            if (k == FREE) {
+                return missing;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return key == FREE ? hasFreeKey : keys[find(key)] == key;
+    }
+
+    /**
+     * Maps the key to the value unless it is already present.
+     *
+     * @return the value already mapped to the key, or {@code value} if it was inserted
+     */
+    public int putIfAbsent(long key, int value) {
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                freeKeyValue = value;
+                size++;
+            }
+            return freeKeyValue;
+        }
+        int slot = find(key);
+        if (keys[slot] == key) {
+            return values[slot];
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+        return value;
+    }
+
+    /**
+     * Maps the key to the value, replacing any previous value.
+     */
+    public void put(long key, int value) {
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            freeKeyValue = value;
+            return;
+        }
+        int slot = find(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the slot holding the key, or the free slot where it would go
+     */
+    private int find(long key) {
+        int slot = slot(key);
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
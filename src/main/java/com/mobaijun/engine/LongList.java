@@ -0,0 +1,48 @@
+package com.mobaijun.engine;
+
+import java.util.Arrays;
+
+/**
+ * Description: [growable long array]
+ * Author: [mobaijun]
+ * Date: [2026/10/17 22:20]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Minimal append-only list of primitive longs, used to collect packed equations without boxing.
+ */
+public final class LongList {
+
+    private long[] values;
+
+    private int size;
+
+    public LongList() {
+        this(64);
+    }
+
+    public LongList(int capacity) {
+        values = new long[Math.max(capacity, 1)];
+    }
+
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    public long get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a trimmed copy of the values
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,324 @@
+package com.mobaijun.engine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Description: [entropy-based hint solver]
+ * Author: [mobaijun]
+ * Date: [2026/10/17 23:45]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Suggests the next guess from the guesses and feedback seen so far. Every equation of the
+ * corpus is a possible guess; its score is the Shannon entropy of the feedback patterns it would
+ * produce over the answers that are still possible, so the best guess is the one that is
+ * expected to split the remaining answers most evenly. Among equally good guesses a possible
+ * answer wins, since it may end the game.
+ * <p>
+ * The guesses are split into slices evaluated as fork/join tasks on all cores. Each task stops
+ * at the latency budget and reports the best guess it has seen, so a hint always comes back in
+ * time: the clock is checked before every slice and every few hundred answers of a guess, and a
+ * guess still being scored at the deadline is dropped. If the budget runs out before any guess is
+ * scored, the first remaining answer is suggested. Guesses are visited in a strided order, so a
+ * cut-off search still covers the whole corpus evenly. When many answers remain, entropy is
+ * estimated on an evenly spaced sample of at most {@link #SAMPLE_LIMIT} of them.
+ * <p>
+ * Given the {@link FeedbackMatrix} of the corpus, patterns are read from it instead of being
+ * scored.
+ * <p>
+ * The pattern histogram has one counter per pattern, 3^12 of them on a 12-symbol board, so each
+ * worker thread keeps its own and only the counters a guess touched are read back and cleared.
+ */
+public final class Solver {
+
+    /**
+     * Default latency budget, overridable with {@code -Dnumberle.hint.budgetMillis}.
+     */
+    public static final Duration DEFAULT_BUDGET = Duration.ofMillis(Long.getLong("numberle.hint.budgetMillis", 200));
+
+    /**
+     * Maximum number of remaining answers used to estimate a guess's entropy.
+     */
+    public static final int SAMPLE_LIMIT = 4096;
+
+    /**
+     * Guesses evaluated sequentially by one task.
+     */
+    private static final int SLICE = 256;
+
+    /**
+     * Preferred step of the strided visiting order.
+     */
+    private static final int STRIDE = 7919;
+
+    /**
+     * Answers scored between two looks at the clock while computing one entropy.
+     */
+    private static final int CLOCK_CHECK = 512;
+
+    private final EquationStore corpus;
+
+    /**
+     * Precomputed patterns of the corpus against itself, or null to score them.
+     */
+    private final FeedbackMatrix matrix;
+
+    private final int length;
+
+    private final Duration budget;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Step coprime with the corpus size, so {@code i * stride % size} visits every guess once.
+     */
+    private final int stride;
+
+    /**
+     * Pattern counters of each worker thread, all zero between two entropy computations.
+     */
+    private final ThreadLocal<int[]> histograms;
+
+    /**
+     * @param corpus packed equations, used both as possible answers and as guesses
+     * @param length number of symbols per equation
+     */
+    public Solver(long[] corpus, int length) {
+        this(EquationStore.of(corpus, length), DEFAULT_BUDGET, ForkJoinPool.commonPool());
+    }
+
+    public Solver(long[] corpus, int length, Duration budget, ForkJoinPool pool) {
+        this(EquationStore.of(corpus, length), budget, pool);
+    }
+
+    /**
+     * @param corpus the equations, used both as possible answers and as guesses
+     */
+    public Solver(EquationStore corpus) {
+        this(corpus, DEFAULT_BUDGET, ForkJoinPool.commonPool());
+    }
+
+    public Solver(EquationStore corpus, Duration budget, ForkJoinPool pool) {
+        this(corpus, null, budget, pool);
+    }
+
+    /**
+     * @param matrix the square feedback matrix of the corpus, or null to score patterns
+     * @throws IllegalArgumentException if the matrix is not the one of the corpus
+     */
+    public Solver(EquationStore corpus, FeedbackMatrix matrix, Duration budget, ForkJoinPool pool) {
+        if (matrix != null && !matrix.matches(corpus)) {
+            throw new IllegalArgumentException("The feedback matrix was not built from this corpus");
+        }
+        this.corpus = corpus;
+        this.matrix = matrix;
+        this.length = corpus.getLength();
+        this.budget = budget;
+        this.pool = pool;
+        int step = STRIDE;
+        while (corpus.size() > 0 && gcd(step, corpus.size()) != 1) {
+            step += 2;
+        }
+        this.stride = step;
+        this.histograms = ThreadLocal.withInitial(() -> new int[FeedbackScorer.patternCount(length)]);
+    }
+
+    /**
+     * Collects the ids of the corpus equations consistent with every guess and its feedback.
+     *
+     * @param guesses  packed guesses, oldest first
+     * @param patterns feedback pattern of each guess
+     * @param count    number of history entries to use
+     */
+    public int[] candidates(long[] guesses, int[] patterns, int count) {
+        int[] result = new int[corpus.size()];
+        int size = 0;
+        for (int id = 0; id < corpus.size(); id++) {
+            if (isConsistent(corpus.packed(id), guesses, patterns, count)) {
+                result[size++] = id;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * @return true if the answer would have produced exactly the observed feedback
+     */
+    public boolean isConsistent(long answer, long[] guesses, int[] patterns, int count) {
+        for (int h = 0; h < count; h++) {
+            if (FeedbackScorer.score(guesses[h], answer, length) != patterns[h]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Suggests the next guess for the given history.
+     *
+     * @return the id of the suggested equation, or -1 if no corpus equation fits the history
+     */
+    public int suggest(long[] guesses, int[] patterns, int count) {
+        return suggest(candidates(guesses, patterns, count));
+    }
+
+    /**
+     * Suggests the guess that maximises the expected information over the given answers.
+     *
+     * @param candidates ids of the answers that are still possible
+     * @return the id of the suggested equation, or -1 if there are no candidates
+     */
+    public int suggest(int[] candidates) {
+        if (candidates.length <= 2) {
+            return candidates.length == 0 ? -1 : candidates[0];
+        }
+        long deadline = System.nanoTime() + budget.toNanos();
+        int[] sample = sample(candidates);
+        long[] packed = matrix != null ? null : pack(sample);
+        Best best = pool.invoke(new SearchTask(sample, packed, candidates, 0, corpus.size(), deadline));
+        // Out of time before any guess was scored: any remaining answer may still end the game
+        return best.id >= 0 ? best.id : candidates[0];
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private int[] sample(int[] candidates) {
+        int size = Math.min(candidates.length, SAMPLE_LIMIT);
+        int[] sample = new int[size];
+        for (int i = 0; i < size; i++) {
+            sample[i] = candidates[(int) ((long) i * candidates.length / size)];
+        }
+        return sample;
+    }
+
+    private long[] pack(int[] ids) {
+        long[] packed = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            packed[i] = corpus.packed(ids[i]);
+        }
+        return packed;
+    }
+
+    /**
+     * Best guess of one slice.
+     */
+    private record Best(int id, double entropy, boolean candidate) {
+
+        static final Best NONE = new Best(-1, -1, false);
+
+        Best max(Best other) {
+            if (other.entropy > entropy + 1e-12) {
+                return other;
+            }
+            if (Math.abs(other.entropy - entropy) <= 1e-12 && other.candidate && !candidate) {
+                return other;
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Evaluates the guesses at strided positions {@code [from, to)}.
+     */
+    private final class SearchTask extends RecursiveTask<Best> {
+
+        /**
+         * Ids of the sampled answers.
+         */
+        private final int[] sample;
+
+        /**
+         * Packed sampled answers, or null when patterns are read from the matrix.
+         */
+        private final long[] packed;
+
+        private final int[] candidates;
+
+        private final int from;
+
+        private final int to;
+
+        private final long deadline;
+
+        SearchTask(int[] sample, long[] packed, int[] candidates, int from, int to, long deadline) {
+            this.sample = sample;
+            this.packed = packed;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Best compute() {
+            if (System.nanoTime() > deadline) {
+                return Best.NONE;
+            }
+            if (to - from > SLICE) {
+                List<SearchTask> slices = new ArrayList<>();
+                for (int start = from; start < to; start += SLICE) {
+                    int end = Math.min(to, start + SLICE);
+                    slices.add(new SearchTask(sample, packed, candidates, start, end, deadline));
+                }
+                Best best = Best.NONE;
+                for (SearchTask slice : invokeAll(slices)) {
+                    best = best.max(slice.join());
+                }
+                return best;
+            }
+            int[] histogram = histograms.get();
+            int[] touched = new int[sample.length];
+            Best best = Best.NONE;
+            for (int i = from; i < to; i++) {
+                int id = (int) ((long) i * stride % corpus.size());
+                double entropy = entropy(id, histogram, touched);
+                if (Double.isNaN(entropy)) {
+                    break;
+                }
+                best = best.max(new Best(id, entropy, isCandidate(id)));
+            }
+            return best;
+        }
+
+        /**
+         * @param touched receives the patterns seen, so that only those counters are read and reset
+         * @return the entropy, or NaN if the deadline passed before the guess was scored
+         */
+        private double entropy(int id, int[] histogram, int[] touched) {
+            long guess = packed != null ? corpus.packed(id) : 0;
+            int distinct = 0;
+            for (int a = 0; a < sample.length; a++) {
+                if (a % CLOCK_CHECK == 0 && System.nanoTime() > deadline) {
+                    for (int i = 0; i < distinct; i++) {
+                        histogram[touched[i]] = 0;
+                    }
+                    return Double.NaN;
+                }
+                int pattern = packed != null
+                        ? FeedbackScorer.score(guess, packed[a], length)
+                        : matrix.get(id, sample[a]);
+                if (histogram[pattern]++ == 0) {
+                    touched[distinct++] = pattern;
+                }
+            }
+            double total = sample.length;
+            double entropy = 0;
+            for (int i = 0; i < distinct; i++) {
+                double p = histogram[touched[i]] / total;
+                histogram[touched[i]] = 0;
+                entropy -= p * Math.log(p);
+            }
+            return entropy;
+        }
+
+        private boolean isCandidate(int id) {
+            return Arrays.binarySearch(candidates, id) >= 0;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.mobaijun.engine;
+
+import java.util.Arrays;
+
+/**
+ * Description: [symbol codec]
+ * Author: [mobaijun]
+ * Date: [2026/10/17 22:05]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Maps the fifteen board symbols to the codes {@code 0..14}: digits keep their value, then
+ * {@code + - * / =}. Code {@link #EMPTY} (15) marks an unused position, so a whole equation of
+ * up to sixteen symbols packs into one {@code long}, four bits per position, position 0 in the
+ * lowest nibble and every unused nibble set to {@link #EMPTY}.
+ */
+public final class Symbols {
+
+    /**
+     * Number of distinct symbols.
+     */
+    public static final int COUNT = 15;
+
+    /**
+     * Code of an unused position in a packed equation.
+     */
+    public static final int EMPTY = 15;
+
+    /**
+     * Maximum number of symbols a packed long can hold.
+     */
+    public static final int MAX_LENGTH = 16;
+
+    public static final int PLUS = 10;
+
+    public static final int MINUS = 11;
+
+    public static final int TIMES = 12;
+
+    public static final int DIVIDE = 13;
+
+    public static final int EQUALS = 14;
+
+    /**
+     * The symbols in code order.
+     */
+    public static final char[] ALPHABET = "0123456789+-*/=".toCharArray();
+
+    /**
+     * Packed value of an empty equation: every nibble is {@link #EMPTY}.
+     */
+    public static final long EMPTY_PACKED = -1L;
+
+    private static final byte[] CODES = new byte[128];
+
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            CODES[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private Symbols() {
+    }
+
+    /**
+     * @return the code of the symbol, or -1 if it is not a board symbol
+     */
+    public static int code(char symbol) {
+        return symbol < 128 ? CODES[symbol] : -1;
+    }
+
+    /**
+     * @Pre 0 <= code < COUNT
+     */
+    public static char symbol(int code) {
+        return ALPHABET[code];
+    }
+
+    public static boolean isDigit(int code) {
+        return code < PLUS;
+    }
+
+    public static boolean isOperator(int code) {
+        return code >= PLUS && code < EQUALS;
+    }
+
+    /**
+     * Packs {@code symbols[from, from + length)}.
+     *
+     * @return the packed equation, or {@link #EMPTY_PACKED} if a character is not a board symbol
+     */
+    public static long pack(char[] symbols, int from, int length) {
+        long packed = EMPTY_PACKED;
+        for (int i = 0; i < length; i++) {
+            int code = code(symbols[from + i]);
+            if (code < 0) {
+                return EMPTY_PACKED;
+            }
+            packed = with(packed, i, code);
+        }
+        return packed;
+    }
+
+    /**
+     * Packs the ASCII bytes {@code symbols[from, from + length)}.
+     *
+     * @see #pack(char[], int, int)
+     */
+    public static long pack(byte[] symbols, int from, int length) {
+        long packed = EMPTY_PACKED;
+        for (int i = 0; i < length; i++) {
+            int code = code((char) (symbols[from + i] & 0xFF));
+            if (code < 0) {
+                return EMPTY_PACKED;
+            }
+            packed = with(packed, i, code);
+        }
+        return packed;
+    }
+
+    /**
+     * @see #pack(char[], int, int)
+     */
+    public static long pack(CharSequence symbols) {
+        long packed = EMPTY_PACKED;
+        for (int i = 0; i < symbols.length(); i++) {
+            int code = code(symbols.charAt(i));
+            if (code < 0) {
+                return EMPTY_PACKED;
+            }
+            packed = with(packed, i, code);
+        }
+        return packed;
+    }
+
+    /**
+     * @return the code at the given position of a packed equation
+     */
+    public static int at(long packed, int position) {
+        return (int) (packed >>> (position << 2)) & 0xF;
+    }
+
+    /**
+     * @return the packed equation with the given position set to the given code
+     */
+    public static long with(long packed, int position, int code) {
+        int shift = position << 2;
+        return (packed & ~(0xFL << shift)) | ((long) code << shift);
+    }
+
+    /**
+     * @return the number of symbols before the first empty position
+     */
+    public static int length(long packed) {
+        int length = 0;
+        while (length < MAX_LENGTH && at(packed, length) != EMPTY) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Appends the first {@code tailLength} symbols of {@code tail} after the first
+     * {@code length} symbols of {@code head}.
+     *
+     * @Pre length + tailLength <= MAX_LENGTH
+     */
+    public static long concat(long head, int length, long tail, int tailLength) {
+        int total = length + tailLength;
+        long padding = total >= MAX_LENGTH ? 0 : -1L << (total << 2);
+        long tailBits = length >= MAX_LENGTH ? 0 : (tail & lowMask(tailLength)) << (length << 2);
+        return (head & lowMask(length)) | tailBits | padding;
+    }
+
+    /**
+     * @return a mask covering the lowest {@code length} nibbles
+     */
+    private static long lowMask(int length) {
+        return length >= MAX_LENGTH ? -1L : (1L << (length << 2)) - 1;
+    }
+
+    /**
+     * @return true if any of the first {@code length} symbols is {@code + - * /}
+     */
+    public static boolean containsOperator(long packed, int length) {
+        for (int i = 0; i < length; i++) {
+            if (isOperator(at(packed, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the first {@code length} symbols into {@code out} starting at {@code offset}.
+     */
+    public static void unpack(long packed, int length, char[] out, int offset) {
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = ALPHABET[at(packed, i)];
+        }
+    }
+
+    /**
+     * Converts a packed equation back to text. Meant for the UI boundary only.
+     */
+    public static String toString(long packed, int length) {
+        char[] chars = new char[length];
+        unpack(packed, length, chars, 0);
+        return new String(chars);
+    }
+}
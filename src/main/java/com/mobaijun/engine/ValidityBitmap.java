@@ -0,0 +1,297 @@
+package com.mobaijun.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Description: [precomputed equation validity bitmap]
+ * Author: [mobaijun]
+ * Date: [2026/10/17 22:55]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * One bit per possible guess: a guess of length {@code n} is encoded in base 15 (position 0 is
+ * the least significant digit) and the bit at that index tells whether it is a valid equation.
+ * For the classic length-7 board that is 15^7 bits, about 21 MB, and a lookup is one memory
+ * access.
+ * <p>
+ * The bitmap is built from {@link ValueIndex#join(int, java.util.function.LongConsumer)}, can be
+ * saved offline with {@link #main(String[])} and is memory-mapped when loaded, so it stays off the
+ * Java heap and loads without parsing. The file is a 16-byte header ({@link #MAGIC}, version,
+ * length, number of valid equations) followed by the little-endian words.
+ */
+@Slf4j
+public final class ValidityBitmap {
+
+    /**
+     * Longest board a bitmap is built for; 15^8 bits would already take 320 MB.
+     */
+    public static final int MAX_LENGTH = 7;
+
+    /**
+     * File magic, "NMBV".
+     */
+    public static final int MAGIC = 0x4E4D4256;
+
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * System property naming a prebuilt bitmap file to load instead of building one.
+     */
+    public static final String PATH_PROPERTY = "numberle.bitmap";
+
+    private static final Map<Integer, ValidityBitmap> CACHE = new ConcurrentHashMap<>();
+
+    private final int length;
+
+    private final int count;
+
+    private final LongBuffer words;
+
+    private ValidityBitmap(int length, int count, LongBuffer words) {
+        this.length = length;
+        this.count = count;
+        this.words = words;
+    }
+
+    /**
+     * Returns the shared bitmap for the given length: loaded from {@code -Dnumberle.bitmap} when
+     * that file exists and matches, built in memory otherwise.
+     *
+     * @Pre 3 <= length <= MAX_LENGTH
+     */
+    public static ValidityBitmap forLength(int length) {
+        return CACHE.computeIfAbsent(length, ValidityBitmap::loadOrBuild);
+    }
+
+    /**
+     * Wraps bitmap words already in memory, for instance a section of a {@link CorpusSnapshot}.
+     */
+    static ValidityBitmap wrap(int length, int count, LongBuffer words) {
+        if (length < 3 || length > MAX_LENGTH || words.remaining() != wordCount(length)) {
+            throw new IllegalArgumentException("Not a validity bitmap of length " + length);
+        }
+        return new ValidityBitmap(length, count, words.slice());
+    }
+
+    /**
+     * Makes the bitmap the one {@link #forLength(int)} returns, unless one is already shared.
+     *
+     * @return the shared bitmap of the bitmap's length
+     */
+    static ValidityBitmap share(ValidityBitmap bitmap) {
+        ValidityBitmap shared = CACHE.putIfAbsent(bitmap.length, bitmap);
+        return shared == null ? bitmap : shared;
+    }
+
+    private static ValidityBitmap loadOrBuild(int length) {
+        String configured = System.getProperty(PATH_PROPERTY);
+        if (configured != null && Files.isRegularFile(Path.of(configured))) {
+            try {
+                ValidityBitmap bitmap = load(Path.of(configured));
+                if (bitmap.length == length) {
+                    return bitmap;
+                }
+                log.warn("Bitmap {} is for length {}, building length {} instead", configured, bitmap.length, length);
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Failed to load bitmap {}, building it instead", configured, e);
+            }
+        }
+        return build(length);
+    }
+
+    /**
+     * Builds the bitmap of every valid equation of the given length.
+     *
+     * @Pre 3 <= length <= MAX_LENGTH
+     */
+    public static ValidityBitmap build(int length) {
+        if (length < 3 || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("No validity bitmap for length " + length);
+        }
+        long[] bits = new long[wordCount(length)];
+        long[] equations = ValueIndex.forEquationLength(length).equations(length);
+        for (long packed : equations) {
+            long code = encode(packed, length);
+            bits[(int) (code >>> 6)] |= 1L << code;
+        }
+        return new ValidityBitmap(length, equations.length, LongBuffer.wrap(bits));
+    }
+
+    /**
+     * Maps a bitmap file written by {@link #save(Path)}.
+     */
+    public static ValidityBitmap load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalArgumentException("Not a validity bitmap: " + file);
+            }
+            int length = buffer.getInt(8);
+            int count = buffer.getInt(12);
+            if (length < 3 || length > MAX_LENGTH || channel.size() != HEADER_BYTES + wordCount(length) * 8L) {
+                throw new IllegalArgumentException("Truncated validity bitmap: " + file);
+            }
+            LongBuffer words = buffer.position(HEADER_BYTES).slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            return new ValidityBitmap(length, count, words);
+        }
+    }
+
+    /**
+     * Writes the bitmap so that {@link #load(Path)} can map it.
+     */
+    public void save(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(length).putInt(count);
+            for (int i = 0; i < words.limit(); i++) {
+                if (buffer.remaining() < Long.BYTES) {
+                    drain(buffer, channel);
+                }
+                buffer.putLong(words.get(i));
+            }
+            drain(buffer, channel);
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Offline entry point: {@code ValidityBitmap [length] [output]}.
+     */
+    public static void main(String[] args) throws IOException {
+        int length = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        Path output = Path.of(args.length > 1 ? args[1] : "equations-" + length + ".bitmap");
+        long start = System.nanoTime();
+        ValidityBitmap bitmap = build(length);
+        bitmap.save(output);
+        log.info("Wrote {} valid equations of length {} into {} in {} ms", bitmap.count, length, output,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @return true if {@code guess[from, from + length)} is a valid equation
+     */
+    public boolean contains(char[] guess, int from) {
+        long code = encode(guess, from, length);
+        return code >= 0 && contains(code);
+    }
+
+    /**
+     * @return true if the ASCII bytes {@code guess[from, from + length)} form a valid equation
+     */
+    public boolean contains(byte[] guess, int from) {
+        long code = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            int symbol = Symbols.code((char) (guess[from + i] & 0xFF));
+            if (symbol < 0) {
+                return false;
+            }
+            code = code * Symbols.COUNT + symbol;
+        }
+        return contains(code);
+    }
+
+    /**
+     * @return true if the text is a valid equation of this bitmap's length
+     */
+    public boolean contains(CharSequence guess) {
+        if (guess.length() != length) {
+            return false;
+        }
+        long code = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            int symbol = Symbols.code(guess.charAt(i));
+            if (symbol < 0) {
+                return false;
+            }
+            code = code * Symbols.COUNT + symbol;
+        }
+        return contains(code);
+    }
+
+    /**
+     * @return true if the base-15 code denotes a valid equation
+     */
+    public boolean contains(long code) {
+        return (words.get((int) (code >>> 6)) & (1L << code)) != 0;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return a read-only view of the words, from the first
+     */
+    LongBuffer words() {
+        return words.asReadOnlyBuffer().position(0);
+    }
+
+    /**
+     * @return the number of valid equations
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the base-15 code of {@code guess[from, from + length)}, or -1 for a non-board symbol
+     */
+    public static long encode(char[] guess, int from, int length) {
+        long code = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            int symbol = Symbols.code(guess[from + i]);
+            if (symbol < 0) {
+                return -1;
+            }
+            code = code * Symbols.COUNT + symbol;
+        }
+        return code;
+    }
+
+    /**
+     * @return the base-15 code of the first {@code length} symbols of a packed equation
+     */
+    public static long encode(long packed, int length) {
+        long code = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            code = code * Symbols.COUNT + Symbols.at(packed, i);
+        }
+        return code;
+    }
+
+    /**
+     * @return the number of 64-bit words of the bitmap of the given length
+     */
+    static int wordCount(int length) {
+        return (int) ((power(length) + 63) >>> 6);
+    }
+
+    private static long power(int length) {
+        long power = 1;
+        for (int i = 0; i < length; i++) {
+            power *= Symbols.COUNT;
+        }
+        return power;
+    }
+}
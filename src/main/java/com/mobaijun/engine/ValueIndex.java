@@ -0,0 +1,314 @@
+package com.mobaijun.engine;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Description: [meet-in-the-middle value index]
+ * Author: [mobaijun]
+ * Date: [2026/10/17 22:15]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Holds every well-formed side expression up to a maximum length, evaluated once and grouped
+ * by exact value. Equations are then produced by joining left sides of length {@code k} with
+ * right sides of length {@code n - k - 1} that share a value, so the work is proportional to the
+ * number of equations instead of the number of strings.
+ * <p>
+ * Everything is kept in primitive structures: the distinct values as parallel fraction arrays,
+ * a {@link LongIntMap} from packed expression to value id (for lookups) and the packed
+ * expressions grouped by {@code (length, value)} in compressed-row form (for joins). Instances
+ * are immutable once built.
+ */
+public final class ValueIndex {
+
+    private static final Map<Integer, ValueIndex> CACHE = new ConcurrentHashMap<>();
+
+    private final int maxSideLength;
+
+    /**
+     * Distinct values in discovery order. The position is the value id.
+     */
+    private final long[] valueNumerators;
+
+    private final long[] valueDenominators;
+
+    /**
+     * Value id of every packed side expression.
+     */
+    private final LongIntMap expressionValues;
+
+    /**
+     * Packed side expressions grouped by length and value id.
+     */
+    private final long[] grouped;
+
+    /**
+     * Start of the group {@code length * valueCount + value} in {@link #grouped}.
+     */
+    private final int[] groupStart;
+
+    private ValueIndex(int maxSideLength, long[] valueNumerators, long[] valueDenominators,
+                       LongIntMap expressionValues, long[] grouped, int[] groupStart) {
+        this.maxSideLength = maxSideLength;
+        this.valueNumerators = valueNumerators;
+        this.valueDenominators = valueDenominators;
+        this.expressionValues = expressionValues;
+        this.grouped = grouped;
+        this.groupStart = groupStart;
+    }
+
+    /**
+     * Returns the shared index able to check and generate equations of the given length.
+     *
+     * @Pre equationLength >= 3
+     * @Post The index is built once per length and cached for the life of the process.
+     */
+    public static ValueIndex forEquationLength(int equationLength) {
+        return CACHE.computeIfAbsent(equationLength - 2, ValueIndex::build);
+    }
+
+    /**
+     * Builds the index of all side expressions of length {@code 1..maxSideLength}.
+     *
+     * @Pre 1 <= maxSideLength < Symbols.MAX_LENGTH
+     */
+    public static ValueIndex build(int maxSideLength) {
+        Sides[] byLength = IntStream.rangeClosed(1, maxSideLength).parallel()
+                .mapToObj(Sides::enumerate)
+                .toArray(Sides[]::new);
+        int total = 0;
+        for (Sides sides : byLength) {
+            total += sides.size;
+        }
+        long[] packed = new long[total];
+        long[] numerators = new long[total];
+        long[] denominators = new long[total];
+        int[] lengths = new int[total];
+        int n = 0;
+        for (int l = 0; l < byLength.length; l++) {
+            Sides sides = byLength[l];
+            System.arraycopy(sides.packed, 0, packed, n, sides.size);
+            System.arraycopy(sides.numerators, 0, numerators, n, sides.size);
+            System.arraycopy(sides.denominators, 0, denominators, n, sides.size);
+            Arrays.fill(lengths, n, n + sides.size, l + 1);
+            n += sides.size;
+        }
+
+        // Assign dense value ids with an open-addressing table over (numerator, denominator)
+        int capacity = Integer.highestOneBit(Math.max(4, total) * 2 - 1) << 1;
+        int mask = capacity - 1;
+        int[] table = new int[capacity];
+        Arrays.fill(table, -1);
+        long[] valueNumerators = new long[total];
+        long[] valueDenominators = new long[total];
+        int[] valueOf = new int[total];
+        LongIntMap expressionValues = new LongIntMap(total);
+        int valueCount = 0;
+        for (int e = 0; e < total; e++) {
+            long h = (numerators[e] * 31 + denominators[e]) * 0x9E3779B97F4A7C15L;
+            int slot = (int) (h ^ (h >>> 32)) & mask;
+            while (table[slot] >= 0 && (valueNumerators[table[slot]] != numerators[e]
+                    || valueDenominators[table[slot]] != denominators[e])) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] < 0) {
+                table[slot] = valueCount;
+                valueNumerators[valueCount] = numerators[e];
+                valueDenominators[valueCount] = denominators[e];
+                valueCount++;
+            }
+            valueOf[e] = table[slot];
+            expressionValues.put(packed[e], valueOf[e]);
+        }
+
+        // Join table: expressions grouped by (length, value)
+        int[] groupStart = new int[(maxSideLength + 1) * valueCount + 1];
+        for (int e = 0; e < total; e++) {
+            groupStart[lengths[e] * valueCount + valueOf[e] + 1]++;
+        }
+        for (int g = 1; g < groupStart.length; g++) {
+            groupStart[g] += groupStart[g - 1];
+        }
+        long[] grouped = new long[total];
+        int[] fill = Arrays.copyOf(groupStart, groupStart.length - 1);
+        for (int e = 0; e < total; e++) {
+            grouped[fill[lengths[e] * valueCount + valueOf[e]]++] = packed[e];
+        }
+
+        return new ValueIndex(maxSideLength, Arrays.copyOf(valueNumerators, valueCount),
+                Arrays.copyOf(valueDenominators, valueCount), expressionValues, grouped, groupStart);
+    }
+
+    /**
+     * @return the longest side expression the index covers
+     */
+    public int getMaxSideLength() {
+        return maxSideLength;
+    }
+
+    /**
+     * @return the number of distinct values
+     */
+    public int getValueCount() {
+        return valueNumerators.length;
+    }
+
+    /**
+     * @return the number of indexed side expressions
+     */
+    public int getExpressionCount() {
+        return grouped.length;
+    }
+
+    /**
+     * @return the value id of a packed side expression, or -1 if it is not well-formed or too long
+     */
+    public int valueOf(long packedSide) {
+        return expressionValues.get(packedSide, -1);
+    }
+
+    /**
+     * @return the value id of {@code side[from, to)}, or -1 if it is not well-formed or too long
+     */
+    public int valueOf(char[] side, int from, int to) {
+        int length = to - from;
+        if (length < 1 || length > maxSideLength) {
+            return -1;
+        }
+        return valueOf(Symbols.pack(side, from, length));
+    }
+
+    /**
+     * Checks that {@code equation[from, to)} holds exactly one '=' and that both sides are
+     * indexed with the same value id. Two hash lookups, no evaluation.
+     */
+    public boolean isBalanced(char[] equation, int from, int to) {
+        int equalIndex = -1;
+        for (int i = from; i < to; i++) {
+            if (equation[i] == '=') {
+                if (equalIndex >= 0) {
+                    return false;
+                }
+                equalIndex = i;
+            }
+        }
+        if (equalIndex < 0) {
+            return false;
+        }
+        int left = valueOf(equation, from, equalIndex);
+        return left >= 0 && left == valueOf(equation, equalIndex + 1, to);
+    }
+
+    /**
+     * Emits every valid equation of the given length (exactly one '=', at least one operator,
+     * equal sides) as a packed long.
+     *
+     * @Pre 3 <= length <= maxSideLength + 2
+     */
+    public void join(int length, LongConsumer sink) {
+        for (int left = 1; left <= length - 2; left++) {
+            joinSides(left, length - 1 - left, sink);
+        }
+    }
+
+    /**
+     * Collects {@link #join(int, LongConsumer)} into an array, one task per split point.
+     */
+    public long[] equations(int length) {
+        return IntStream.rangeClosed(1, length - 2).parallel()
+                .mapToObj(left -> {
+                    LongList sink = new LongList();
+                    joinSides(left, length - 1 - left, sink::add);
+                    return sink.toArray();
+                })
+                .flatMapToLong(Arrays::stream)
+                .toArray();
+    }
+
+    private void joinSides(int leftLength, int rightLength, LongConsumer sink) {
+        int valueCount = getValueCount();
+        long equals = Symbols.with(Symbols.EMPTY_PACKED, 0, Symbols.EQUALS);
+        for (int v = 0; v < valueCount; v++) {
+            int leftFrom = groupStart[leftLength * valueCount + v];
+            int leftTo = groupStart[leftLength * valueCount + v + 1];
+            int rightFrom = groupStart[rightLength * valueCount + v];
+            int rightTo = groupStart[rightLength * valueCount + v + 1];
+            if (leftFrom == leftTo || rightFrom == rightTo) {
+                continue;
+            }
+            for (int l = leftFrom; l < leftTo; l++) {
+                long left = Symbols.concat(grouped[l], leftLength, equals, 1);
+                boolean leftOperator = Symbols.containsOperator(left, leftLength);
+                for (int r = rightFrom; r < rightTo; r++) {
+                    long right = grouped[r];
+                    if (leftOperator || Symbols.containsOperator(right, rightLength)) {
+                        sink.accept(Symbols.concat(left, leftLength + 1, right, rightLength));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Growable columns of side expressions of one length.
+     */
+    private static final class Sides {
+
+        private long[] packed = new long[64];
+
+        private long[] numerators = new long[64];
+
+        private long[] denominators = new long[64];
+
+        private int size;
+
+        void add(long code, long numerator, long denominator) {
+            if (size == packed.length) {
+                packed = Arrays.copyOf(packed, size * 2);
+                numerators = Arrays.copyOf(numerators, size * 2);
+                denominators = Arrays.copyOf(denominators, size * 2);
+            }
+            packed[size] = code;
+            numerators[size] = numerator;
+            denominators[size] = denominator;
+            size++;
+        }
+
+        /**
+         * Enumerates and evaluates every well-formed expression of exactly the given length.
+         */
+        static Sides enumerate(int length) {
+            Sides sides = new Sides();
+            enumerate(new char[length], 0, new ExpressionEvaluator(), sides);
+            return sides;
+        }
+
+        private static void enumerate(char[] buffer, int position, ExpressionEvaluator evaluator, Sides sides) {
+            if (position == buffer.length) {
+                if (evaluator.evaluate(buffer, 0, buffer.length)) {
+                    sides.add(Symbols.pack(buffer, 0, buffer.length), evaluator.getNumerator(), evaluator.getDenominator());
+                }
+                return;
+            }
+            boolean afterDigit = position > 0 && buffer[position - 1] <= '9' && buffer[position - 1] >= '0';
+            boolean loneZero = afterDigit && buffer[position - 1] == '0'
+                    && (position == 1 || buffer[position - 2] < '0' || buffer[position - 2] > '9');
+            if (!loneZero) {
+                for (char d = '0'; d <= '9'; d++) {
+                    buffer[position] = d;
+                    enumerate(buffer, position + 1, evaluator, sides);
+                }
+            }
+            // An operator needs a digit on both sides
+            if (afterDigit && position < buffer.length - 1) {
+                for (int code = Symbols.PLUS; code < Symbols.EQUALS; code++) {
+                    buffer[position] = Symbols.symbol(code);
+                    enumerate(buffer, position + 1, evaluator, sides);
+                }
+            }
+        }
+    }
+}
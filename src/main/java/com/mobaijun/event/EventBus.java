@@ -0,0 +1,187 @@
+package com.mobaijun.event;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Description: [asynchronous, coalescing game event bus]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 01:40]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * {@link #publish(GameEvent)} never runs a listener: it queues the event for every matching
+ * subscription and returns, so a slow listener cannot stall input handling. Each subscription
+ * has its own queue, flushed at most once per {@link #FRAME_MILLIS} frame on its executor (the
+ * EDT for Swing listeners): events published within a frame are delivered together, in order,
+ * and a coalescable event replaces an equal-typed one at the tail of the queue, so a burst of
+ * key presses becomes one repaint.
+ * <p>
+ * Subscriptions live in a copy-on-write list: publishing iterates a snapshot without locking and
+ * subscribing never blocks a publisher.
+ */
+@Slf4j
+public final class EventBus {
+
+    /**
+     * Delivery period, one frame at 60 Hz.
+     */
+    public static final long FRAME_MILLIS = 16;
+
+    private static final ScheduledExecutorService FRAMES = frames();
+
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Delivers events of the given type to a listener on the EDT.
+     */
+    public <E extends GameEvent> Subscription<E> subscribeSwing(Class<E> type, Consumer<? super E> listener) {
+        return subscribe(type, listener, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Delivers events of the given type to a listener on the common fork/join pool.
+     */
+    public <E extends GameEvent> Subscription<E> subscribe(Class<E> type, Consumer<? super E> listener) {
+        return subscribe(type, listener, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Delivers events of the given type to a listener on the given executor; deliveries to one
+     * subscription never overlap.
+     */
+    public <E extends GameEvent> Subscription<E> subscribe(Class<E> type, Consumer<? super E> listener,
+                                                           Executor executor) {
+        Subscription<E> subscription = new Subscription<>(this, type, listener, executor);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Queues an event for every subscription of its type; returns without running any listener.
+     */
+    public void publish(GameEvent event) {
+        for (Subscription<?> subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * @return true if anyone listens; lets publishers skip building events nobody reads
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    private static ScheduledExecutorService frames() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "event-frames");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * One listener's registration and pending events.
+     */
+    public static final class Subscription<E extends GameEvent> {
+
+        private final EventBus bus;
+
+        private final Class<E> type;
+
+        private final Consumer<? super E> listener;
+
+        private final Executor executor;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private ArrayDeque<GameEvent> pending = new ArrayDeque<>();
+
+        private boolean scheduled;
+
+        private Subscription(EventBus bus, Class<E> type, Consumer<? super E> listener, Executor executor) {
+            this.bus = bus;
+            this.type = type;
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        /**
+         * Stops deliveries; events already handed to the executor may still arrive.
+         */
+        public void cancel() {
+            bus.subscriptions.remove(this);
+        }
+
+        private void offer(GameEvent event) {
+            if (!type.isInstance(event)) {
+                return;
+            }
+            lock.lock();
+            try {
+                GameEvent tail = pending.peekLast();
+                if (tail != null && event.isCoalescable() && tail.getClass() == event.getClass()) {
+                    pending.pollLast();
+                }
+                pending.addLast(event);
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            } finally {
+                lock.unlock();
+            }
+            scheduleFlush();
+        }
+
+        private void flush() {
+            ArrayDeque<GameEvent> events;
+            lock.lock();
+            try {
+                events = pending;
+                pending = new ArrayDeque<>();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                for (GameEvent event : events) {
+                    try {
+                        listener.accept(type.cast(event));
+                    } catch (RuntimeException e) {
+                        log.error("Listener failed on {}", event, e);
+                    }
+                }
+            } finally {
+                // Stay scheduled until the queue is found empty, so deliveries never overlap; an
+                // Error thrown by the listener propagates but does not leave the subscription stuck
+                boolean again;
+                lock.lock();
+                try {
+                    again = !pending.isEmpty();
+                    scheduled = again;
+                } finally {
+                    lock.unlock();
+                }
+                if (again) {
+                    scheduleFlush();
+                }
+            }
+        }
+
+        private void scheduleFlush() {
+            FRAMES.schedule(() -> executor.execute(this::flush), FRAME_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.mobaijun.event;
+
+/**
+ * Description: [typed game events]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 01:40]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Everything a game publishes on its {@link EventBus}. {@link InputChanged} only says that the
+ * current row changed, so listeners read the model when they get it and successive ones can be
+ * coalesced; the other events carry their data and are always delivered, in order.
+ */
+public sealed interface GameEvent {
+
+    /**
+     * @return true if a later event of the same type makes this one redundant
+     */
+    default boolean isCoalescable() {
+        return false;
+    }
+
+    /**
+     * The row being typed changed: a symbol was typed or removed, the row was cleared or the game
+     * moved to another row.
+     *
+     * @param lineNum the row being typed after the change
+     */
+    record InputChanged(int lineNum) implements GameEvent {
+
+        @Override
+        public boolean isCoalescable() {
+            return true;
+        }
+    }
+
+    /**
+     * A valid equation was scored.
+     *
+     * @param lineNum  the row of the guess
+     * @param guess    the guessed equation
+     * @param feedback one state per position: 0 green, 1 yellow, 2 grey
+     */
+    record GuessScored(int lineNum, String guess, int[] feedback) implements GameEvent {
+    }
+
+    /**
+     * The game ended.
+     *
+     * @param won    true if the last guess was the answer
+     * @param answer the equation to guess
+     */
+    record GameOver(boolean won, String answer) implements GameEvent {
+    }
+}
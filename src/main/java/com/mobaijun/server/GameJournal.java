@@ -0,0 +1,379 @@
+package com.mobaijun.server;
+
+import com.mobaijun.engine.BoardConfig;
+import com.mobaijun.engine.FeedbackScorer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Description: [memory-mapped append-only game journal]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 02:40]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Every game start, scored guess and game end is appended as one {@value #RECORD_BYTES}-byte
+ * record to a file mapped in {@link #CHUNK_BYTES} chunks:
+ * <pre>
+ *  0  long  session id
+ *  8  long  packed answer
+ * 16  long  packed guess (0 unless GUESS)
+ * 24  short feedback pattern
+ * 26  byte  line of the guess
+ * 27  byte  type: START, GUESS or END
+ * 28  int   CRC32C of bytes 0-27
+ * </pre>
+ * An append is a few stores into the mapping under a lock, so a scored guess never waits on the
+ * disk: once appended, the record is in the page cache and survives the process dying. A daemon
+ * thread forces the appended range to the device every sync interval, so one fsync commits every
+ * guess of that interval (group commit) and an OS crash loses at most one interval.
+ * <p>
+ * On open the file is scanned up to the first record that is zero or fails its checksum, a record
+ * torn by a crash, and appending resumes there; {@link #replay} hands the valid records back in
+ * order.
+ * <p>
+ * Games that ended are dropped by {@link #compact()}: on open, and whenever the appends are about
+ * to fill a new chunk. The records of the games still live are copied, in order, to a new file
+ * that is forced and then moved over the journal, so a crash during compaction leaves either the
+ * old journal or the new one. Appends wait for a compaction, once per chunk of records at most.
+ */
+@Slf4j
+public final class GameJournal implements AutoCloseable {
+
+    public static final int RECORD_BYTES = 32;
+
+    /**
+     * Size of one mapping; a multiple of {@link #RECORD_BYTES}, so records never straddle chunks.
+     */
+    public static final int CHUNK_BYTES = 1 << 24;
+
+    /**
+     * Default interval between group commits, overridable with {@code -Dnumberle.journal.syncMillis}.
+     */
+    public static final Duration DEFAULT_SYNC = Duration.ofMillis(Long.getLong("numberle.journal.syncMillis", 10));
+
+    public static final byte START = 1;
+
+    public static final byte GUESS = 2;
+
+    public static final byte END = 3;
+
+    private final Path file;
+
+    /**
+     * Channel of the journal; replaced, under both locks, when the journal is compacted.
+     */
+    private FileChannel channel;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final ScheduledExecutorService syncer;
+
+    private final CRC32C crc = new CRC32C();
+
+    /**
+     * Serialises group commits; never taken by appends.
+     */
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    /**
+     * Mapped chunks; replaced by a longer array, under the lock, before the position moves into it.
+     */
+    private volatile MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+
+    /**
+     * End of the appended records; advanced under the lock after a record is complete.
+     */
+    private volatile long position;
+
+    /**
+     * End of the records forced to the device; guarded by the sync lock.
+     */
+    private long synced;
+
+    public GameJournal(Path file) throws IOException {
+        this(file, DEFAULT_SYNC);
+    }
+
+    /**
+     * Opens or creates a journal, finds the end of its valid records and drops the games that ended.
+     *
+     * @param sync interval between group commits
+     */
+    public GameJournal(Path file, Duration sync) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long end = 0;
+        long size = channel.size();
+        while (end + RECORD_BYTES <= size && isValid(end)) {
+            end += RECORD_BYTES;
+        }
+        this.position = end;
+        this.synced = end;
+        long dropped = compact();
+        if (dropped > 0) {
+            log.info("Compacted the journal {}: dropped {} records of ended games", file, dropped);
+        }
+        this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(this::syncQuietly, sync.toMillis(), sync.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks that the games of a board fit the records: a pattern in an unsigned short, which
+     * holds the 3^10 patterns of a 10-symbol board, and a line in a byte.
+     *
+     * @throws IllegalArgumentException if they do not
+     */
+    public static void checkBoard(BoardConfig board) {
+        if (FeedbackScorer.patternCount(board.length()) > 1 << 16 || board.attempts() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Games on a " + board.length() + "-symbol board of "
+                    + board.attempts() + " attempts cannot be journaled");
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return the number of records in the journal
+     */
+    public long size() {
+        return position / RECORD_BYTES;
+    }
+
+    public void appendStart(long session, long answer) {
+        append(session, answer, 0L, 0, 0, START);
+    }
+
+    public void appendGuess(long session, long answer, int line, long guess, int pattern) {
+        append(session, answer, guess, pattern, line, GUESS);
+    }
+
+    public void appendEnd(long session) {
+        append(session, 0L, 0L, 0, 0, END);
+    }
+
+    private void append(long session, long answer, long guess, int pattern, int line, byte type) {
+        lock.lock();
+        try {
+            if (position > 0 && position % CHUNK_BYTES == 0) {
+                // About to map a new chunk: make room by dropping the games that ended first
+                try {
+                    compact();
+                } catch (IOException e) {
+                    log.error("Failed to compact the journal {}; appending to it as it is", file, e);
+                }
+            }
+            long at = position;
+            MappedByteBuffer chunk = chunk(at);
+            int offset = (int) (at % CHUNK_BYTES);
+            chunk.putLong(offset, session)
+                    .putLong(offset + 8, answer)
+                    .putLong(offset + 16, guess)
+                    .putShort(offset + 24, (short) pattern)
+                    .put(offset + 26, (byte) line)
+                    .put(offset + 27, type);
+            crc.reset();
+            crc.update(chunk.slice(offset, RECORD_BYTES - 4));
+            chunk.putInt(offset + RECORD_BYTES - 4, (int) crc.getValue());
+            position = at + RECORD_BYTES;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rewrites the journal without the records of the games that ended, keeping the order of the
+     * others. Appends and group commits wait until it is done.
+     *
+     * @return the number of records dropped
+     */
+    public long compact() throws IOException {
+        lock.lock();
+        syncLock.lock();
+        try {
+            long end = position;
+            Set<Long> ended = new HashSet<>();
+            for (long at = 0; at < end; at += RECORD_BYTES) {
+                MappedByteBuffer chunk = chunk(at);
+                int offset = (int) (at % CHUNK_BYTES);
+                if (chunk.get(offset + 27) == END) {
+                    ended.add(chunk.getLong(offset));
+                }
+            }
+            if (ended.isEmpty()) {
+                return 0;
+            }
+            Path absolute = file.toAbsolutePath();
+            Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+            long kept = 0;
+            try {
+                try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_BYTES * 2048);
+                    for (long at = 0; at < end; at += RECORD_BYTES) {
+                        MappedByteBuffer chunk = chunk(at);
+                        int offset = (int) (at % CHUNK_BYTES);
+                        if (ended.contains(chunk.getLong(offset))) {
+                            continue;
+                        }
+                        buffer.put(chunk.slice(offset, RECORD_BYTES));
+                        kept += RECORD_BYTES;
+                        if (!buffer.hasRemaining()) {
+                            write(out, buffer);
+                        }
+                    }
+                    write(out, buffer);
+                    out.force(true);
+                }
+                Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            // The old mappings still point at the replaced file; map the new one from scratch
+            channel.close();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            chunks = new MappedByteBuffer[0];
+            position = kept;
+            synced = kept;
+            return (end - kept) / RECORD_BYTES;
+        } finally {
+            syncLock.unlock();
+            lock.unlock();
+        }
+    }
+
+    private static void write(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Hands every record to the visitor, oldest first; appends wait until it returns.
+     */
+    public void replay(Visitor visitor) {
+        lock.lock();
+        long end = position;
+        try {
+            for (long at = 0; at < end; at += RECORD_BYTES) {
+                MappedByteBuffer chunk = chunk(at);
+                int offset = (int) (at % CHUNK_BYTES);
+                long session = chunk.getLong(offset);
+                switch (chunk.get(offset + 27)) {
+                    case START -> visitor.start(session, chunk.getLong(offset + 8));
+                    case GUESS -> visitor.guess(session, chunk.getLong(offset + 8), chunk.get(offset + 26),
+                            chunk.getLong(offset + 16), Short.toUnsignedInt(chunk.getShort(offset + 24)));
+                    case END -> visitor.end(session);
+                    default -> log.warn("Skipping journal record of unknown type at {}", at);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces every record appended so far to the device. Appends go on meanwhile: they only take
+     * the append lock, which the fsync does not hold.
+     */
+    public void sync() {
+        syncLock.lock();
+        try {
+            long end = position;
+            MappedByteBuffer[] mapped = chunks;
+            for (long at = synced; at < end; ) {
+                int offset = (int) (at % CHUNK_BYTES);
+                int length = (int) Math.min(end - at, CHUNK_BYTES - offset);
+                mapped[(int) (at / CHUNK_BYTES)].force(offset, length);
+                at += length;
+            }
+            synced = end;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.error("Failed to sync the journal {}", file, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        syncer.shutdownNow();
+        sync();
+        channel.close();
+    }
+
+    private boolean isValid(long at) throws IOException {
+        MappedByteBuffer chunk = chunk(at);
+        int offset = (int) (at % CHUNK_BYTES);
+        byte type = chunk.get(offset + 27);
+        if (type != START && type != GUESS && type != END) {
+            return false;
+        }
+        crc.reset();
+        crc.update(chunk.slice(offset, RECORD_BYTES - 4));
+        return (int) crc.getValue() == chunk.getInt(offset + RECORD_BYTES - 4);
+    }
+
+    /**
+     * @return the chunk holding the given offset, mapping it (and growing the file) on first use;
+     * called under the lock, or from the constructor
+     */
+    private MappedByteBuffer chunk(long at) throws IOException {
+        int index = (int) (at / CHUNK_BYTES);
+        if (index >= chunks.length) {
+            MappedByteBuffer[] grown = Arrays.copyOf(chunks, index + 1);
+            for (int i = chunks.length; i <= index; i++) {
+                grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * CHUNK_BYTES, CHUNK_BYTES);
+                grown[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            chunks = grown;
+        }
+        return chunks[index];
+    }
+
+    /**
+     * Receives the records of {@link #replay}.
+     */
+    public interface Visitor {
+
+        void start(long session, long answer);
+
+        void guess(long session, long answer, int line, long guess, int pattern);
+
+        void end(long session);
+    }
+}
@@ -0,0 +1,289 @@
+package com.mobaijun.server;
+
+import com.mobaijun.engine.BoardConfig;
+import com.mobaijun.engine.GameCorpus;
+import com.mobaijun.engine.Symbols;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Description: [HTTP game server]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 01:00]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Hosts many concurrent games on the JDK's built-in HTTP server, one virtual thread per request:
+ * <ul>
+ *     <li>{@code POST /games} starts a game and returns its state, including its id;</li>
+ *     <li>{@code POST /games/{id}/guesses} with the guess as the plain-text body scores it;</li>
+ *     <li>{@code GET /games/{id}} returns the state of a game;</li>
+ *     <li>{@code GET /stats} returns the live game count, evictions and estimated memory.</li>
+ * </ul>
+ * Responses are JSON. Games are compact {@link GameState}s in a {@link SessionStore}, and all of
+ * them share one {@link GameCorpus}, so a game only costs its per-game state and an idle one is
+ * dropped after the store's TTL.
+ * <p>
+ * With a {@link GameJournal}, every start, scored guess and eviction is appended to it while the
+ * game's stripe is held, and the games in the journal are restored when the server is created.
+ */
+@Slf4j
+public final class GameServer {
+
+    private static final String PREFIX = "/games";
+
+    /**
+     * Longest request body read; a guess is at most {@link BoardConfig#MAX_LENGTH} characters.
+     */
+    private static final int MAX_BODY = 64;
+
+    private final GameCorpus corpus;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final SessionStore sessions;
+
+    /**
+     * Where games are persisted, or null.
+     */
+    private final GameJournal journal;
+
+    public GameServer(GameCorpus corpus, InetSocketAddress address) throws IOException {
+        this(corpus, address, new SessionStore(), null);
+    }
+
+    /**
+     * @param journal journal to restore games from and append to, or null to keep games in memory only
+     */
+    public GameServer(GameCorpus corpus, InetSocketAddress address, SessionStore sessions, GameJournal journal)
+            throws IOException {
+        if (journal != null) {
+            GameJournal.checkBoard(corpus.getBoard());
+        }
+        this.corpus = corpus;
+        this.sessions = sessions;
+        this.journal = journal;
+        if (journal != null) {
+            restore();
+            sessions.setEvictionListener(journal::appendEnd);
+        }
+        this.server = HttpServer.create(address, 0);
+        server.createContext(PREFIX, this::handle);
+        server.createContext("/stats", this::stats);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        log.info("Numberle server listening on port {}", getPort());
+    }
+
+    /**
+     * Stops accepting requests, waits up to {@code delaySeconds} for running ones, then stops.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.close();
+        sessions.close();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.error("Failed to close the journal {}", journal.getFile(), e);
+            }
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return the number of games currently held
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public SessionStore getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Rebuilds the games recorded in the journal, except those evicted since and those whose
+     * answer does not fit the board, journaled while the server ran on another one.
+     */
+    private void restore() {
+        BoardConfig board = corpus.getBoard();
+        long[] skipped = new long[1];
+        journal.replay(new GameJournal.Visitor() {
+            @Override
+            public void start(long session, long answer) {
+                if (Symbols.length(answer) != board.length()) {
+                    skipped[0]++;
+                    return;
+                }
+                sessions.restore(session, new GameState(board, answer));
+            }
+
+            @Override
+            public void guess(long session, long answer, int line, long guess, int pattern) {
+                if (Symbols.length(answer) != board.length()) {
+                    return;
+                }
+                if (sessions.with(session, state -> state) == null) {
+                    sessions.restore(session, new GameState(board, answer));
+                }
+                sessions.with(session, state -> {
+                    if (state.getLineNum() == line) {
+                        state.replay(guess, pattern);
+                    }
+                    return null;
+                });
+            }
+
+            @Override
+            public void end(long session) {
+                sessions.remove(session);
+            }
+        });
+        if (skipped[0] > 0) {
+            log.warn("Skipped {} journaled games that are not {}-symbol games", skipped[0], board.length());
+        }
+        log.info("Restored {} games from {} journal records", sessions.size(), journal.size());
+    }
+
+    private void stats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            send(exchange, 200, "{\"live\":" + sessions.size() + ",\"evicted\":" + sessions.evictedCount()
+                    + ",\"estimatedBytes\":" + sessions.estimatedBytes(corpus.getBoard()) + "}");
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                route(exchange);
+            } catch (RuntimeException e) {
+                log.error("Failed to handle {}", exchange.getRequestURI(), e);
+                // Unless the response was already started, tell the client instead of dropping it
+                if (exchange.getResponseCode() == -1) {
+                    send(exchange, 500, error("Internal server error"));
+                }
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String rest = exchange.getRequestURI().getPath().substring(PREFIX.length());
+        if (!rest.isEmpty() && !rest.startsWith("/")) {
+            // The context matches by prefix, so "/gamesX" lands here too
+            send(exchange, 404, error("Unknown endpoint"));
+            return;
+        }
+        String[] path = rest.split("/");
+        // "" -> [""], "/id" -> ["", id], "/id/guesses" -> ["", id, "guesses"]
+        if (path.length <= 1) {
+            if (!method.equals("POST")) {
+                send(exchange, 405, error("Use POST to start a game"));
+                return;
+            }
+            GameState state = new GameState(corpus.getBoard(), corpus.packed(ThreadLocalRandom.current().nextInt(corpus.size())));
+            long id = sessions.create(state);
+            send(exchange, 201, sessions.with(id, created -> {
+                if (journal != null) {
+                    journal.appendStart(id, created.getAnswer());
+                }
+                return state(id, created);
+            }));
+            return;
+        }
+        long id;
+        try {
+            id = Long.parseUnsignedLong(path[1], 16);
+        } catch (NumberFormatException e) {
+            send(exchange, 404, error("No such game"));
+            return;
+        }
+        String response;
+        int status;
+        if (path.length == 2 && method.equals("GET")) {
+            response = sessions.with(id, state -> state(id, state));
+            status = 200;
+        } else if (path.length == 3 && path[2].equals("guesses") && method.equals("POST")) {
+            String guess = new String(exchange.getRequestBody().readNBytes(MAX_BODY), StandardCharsets.UTF_8).strip();
+            int[] result = new int[1];
+            response = sessions.with(id, state -> {
+                if (guess.length() == state.getBoard().length()) {
+                    state.typeAll(guess);
+                    result[0] = state.submit();
+                    boolean scored = result[0] >= 0 || result[0] == GameState.WON || result[0] == GameState.LOST;
+                    if (journal != null && scored) {
+                        // The guess is the last line of the state
+                        int line = state.getLineNum() - 1;
+                        journal.appendGuess(id, state.getAnswer(), line, state.guess(line), state.pattern(line));
+                    }
+                } else {
+                    result[0] = GameState.TOO_SHORT;
+                }
+                return state(id, state);
+            });
+            String rejected = rejection(result[0]);
+            status = rejected == null ? 200 : 422;
+            if (response != null && rejected != null) {
+                response = error(rejected);
+            }
+        } else {
+            send(exchange, 404, error("Unknown endpoint"));
+            return;
+        }
+        if (response == null) {
+            send(exchange, 404, error("No such game"));
+        } else {
+            send(exchange, status, response);
+        }
+    }
+
+    /**
+     * @return why a guess was rejected, or null if it was scored
+     */
+    private static String rejection(int result) {
+        return switch (result) {
+            case GameState.NO_EQUALS -> "Missing equals sign";
+            case GameState.NO_OPERATOR -> "Missing operators";
+            case GameState.NOT_EQUAL -> "The values on the left and right sides of the equation are not equal";
+            case GameState.TOO_SHORT -> "Too short";
+            case GameState.GAME_OVER -> "Game over";
+            default -> null;
+        };
+    }
+
+    private static String state(long id, GameState state) {
+        StringBuilder json = new StringBuilder(256);
+        state.writeJson(String.format("%016x", id), json);
+        return json.toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":\"" + message + "\"}";
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
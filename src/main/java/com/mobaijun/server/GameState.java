@@ -0,0 +1,230 @@
+package com.mobaijun.server;
+
+import com.mobaijun.engine.BoardConfig;
+import com.mobaijun.engine.FeedbackScorer;
+import com.mobaijun.engine.Symbols;
+import com.mobaijun.engine.ValidityBitmap;
+
+/**
+ * Description: [compact state of one hosted game]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 01:20]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * The per-game state of {@code GameInterfaceImpl} in primitive form: the answer, the input buffer
+ * and the line number, plus the scored guesses and their feedback patterns. Everything shared
+ * between games (corpus, candidate index, solver, validity bitmap) stays outside, so a state is a
+ * couple of hundred bytes; see {@link #estimatedBytes(BoardConfig)}. Remaining candidates are not
+ * stored: they can be rebuilt from the guesses when needed. The length and the number of attempts
+ * come from the {@link BoardConfig} of the game.
+ * <p>
+ * Not thread-safe; the {@link SessionStore} serialises access.
+ */
+public final class GameState {
+
+    /**
+     * Results of {@link #submit()}, the same codes {@code GameInterfaceImpl.checkEquation()} uses.
+     */
+    public static final int NO_EQUALS = -1;
+
+    public static final int NO_OPERATOR = -2;
+
+    public static final int NOT_EQUAL = -3;
+
+    public static final int TOO_SHORT = -4;
+
+    public static final int LOST = -5;
+
+    public static final int WON = -6;
+
+    public static final int GAME_OVER = -7;
+
+    private final BoardConfig board;
+
+    private final long answer;
+
+    /**
+     * Typed symbols, packed; unused positions hold {@link Symbols#EMPTY}.
+     */
+    private long input = Symbols.EMPTY_PACKED;
+
+    private byte cursor;
+
+    private byte lineNum;
+
+    private final long[] guesses;
+
+    /**
+     * Feedback of each guess; ints, since the patterns of an 11- or 12-symbol board exceed a short.
+     */
+    private final int[] patterns;
+
+    /**
+     * Tick of the last access, maintained by the store.
+     */
+    int lastAccess;
+
+    /**
+     * @param board  the board the game is played on
+     * @param answer the packed equation to guess
+     */
+    public GameState(BoardConfig board, long answer) {
+        this.board = board;
+        this.answer = answer;
+        this.guesses = new long[board.attempts()];
+        this.patterns = new int[board.attempts()];
+    }
+
+    /**
+     * @return the heap of one game on the board: object header, fields and the two history arrays
+     * on a 64-bit JVM with compressed oops
+     */
+    public static int estimatedBytes(BoardConfig board) {
+        return 16 + 4 + 8 + 8 + 2 + 4 + 4 + 4 + (16 + 8 * board.attempts()) + (16 + 4 * board.attempts());
+    }
+
+    /**
+     * Appends a symbol to the input; ignored when the input is full or the symbol is unknown.
+     */
+    public void type(char symbol) {
+        int code = Symbols.code(symbol);
+        if (code >= 0 && cursor < board.length()) {
+            input = Symbols.with(input, cursor++, code);
+        }
+    }
+
+    /**
+     * Removes the last typed symbol, if any.
+     */
+    public void back() {
+        if (cursor > 0) {
+            input = Symbols.with(input, --cursor, Symbols.EMPTY);
+        }
+    }
+
+    /**
+     * Replaces the input with the given text.
+     */
+    public void typeAll(CharSequence text) {
+        input = Symbols.EMPTY_PACKED;
+        cursor = 0;
+        for (int i = 0; i < text.length(); i++) {
+            type(text.charAt(i));
+        }
+    }
+
+    /**
+     * Checks the input, scores it if it is a valid equation and clears it.
+     *
+     * @return the feedback pattern (>= 0), {@link #WON}, {@link #LOST}, or why the guess was rejected
+     */
+    public int submit() {
+        if (isOver()) {
+            return GAME_OVER;
+        }
+        long guess = input;
+        int result = check(guess);
+        input = Symbols.EMPTY_PACKED;
+        cursor = 0;
+        if (result < 0) {
+            return result;
+        }
+        int pattern = FeedbackScorer.score(guess, answer, board.length());
+        guesses[lineNum] = guess;
+        patterns[lineNum++] = pattern;
+        if (pattern == FeedbackScorer.SOLVED) {
+            return WON;
+        }
+        return lineNum == board.attempts() ? LOST : pattern;
+    }
+
+    private int check(long guess) {
+        int length = board.length();
+        if (cursor < length) {
+            return TOO_SHORT;
+        }
+        boolean hasEquals = false;
+        for (int i = 0; i < length; i++) {
+            hasEquals |= Symbols.at(guess, i) == Symbols.EQUALS;
+        }
+        if (!hasEquals) {
+            return NO_EQUALS;
+        }
+        if (!Symbols.containsOperator(guess, length)) {
+            return NO_OPERATOR;
+        }
+        if (length <= ValidityBitmap.MAX_LENGTH) {
+            return ValidityBitmap.forLength(length).contains(ValidityBitmap.encode(guess, length)) ? 0 : NOT_EQUAL;
+        }
+        // Longer boards have no bitmap; a validator is not thread-safe, and a request thread is short-lived
+        return board.newValidator().isValid(Symbols.toString(guess, length)) ? 0 : NOT_EQUAL;
+    }
+
+    /**
+     * Records a guess scored before, as read back from a {@link GameJournal}, without checking it.
+     */
+    void replay(long guess, int pattern) {
+        if (lineNum < board.attempts()) {
+            guesses[lineNum] = guess;
+            patterns[lineNum++] = pattern;
+        }
+    }
+
+    public boolean isWon() {
+        return lineNum > 0 && patterns[lineNum - 1] == FeedbackScorer.SOLVED;
+    }
+
+    public boolean isOver() {
+        return isWon() || lineNum == board.attempts();
+    }
+
+    public BoardConfig getBoard() {
+        return board;
+    }
+
+    public int getLineNum() {
+        return lineNum;
+    }
+
+    public long getAnswer() {
+        return answer;
+    }
+
+    /**
+     * @return the packed guess of the given line
+     */
+    public long guess(int line) {
+        return guesses[line];
+    }
+
+    /**
+     * @return the feedback pattern of the given line
+     */
+    public int pattern(int line) {
+        return patterns[line];
+    }
+
+    /**
+     * Writes the game as a JSON object; the answer is only revealed once the game is over.
+     */
+    public void writeJson(String id, StringBuilder json) {
+        json.append("{\"id\":\"").append(id)
+                .append("\",\"status\":\"").append(isWon() ? "WON" : isOver() ? "LOST" : "PLAYING")
+                .append("\",\"remainingAttempts\":").append(board.attempts() - lineNum)
+                .append(",\"guesses\":[");
+        for (int line = 0; line < lineNum; line++) {
+            json.append(line > 0 ? ",{\"guess\":\"" : "{\"guess\":\"")
+                    .append(Symbols.toString(guesses[line], board.length()))
+                    .append("\",\"feedback\":[");
+            for (int i = 0; i < board.length(); i++) {
+                json.append(i > 0 ? "," : "").append(FeedbackScorer.stateAt(patterns[line], i));
+            }
+            json.append("]}");
+        }
+        json.append(']');
+        if (isOver()) {
+            json.append(",\"answer\":\"").append(Symbols.toString(answer, board.length())).append('"');
+        }
+        json.append('}');
+    }
+}
@@ -0,0 +1,290 @@
+package com.mobaijun.server;
+
+import com.mobaijun.engine.BoardConfig;
+import com.mobaijun.engine.LongList;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * Description: [striped session registry with timer-wheel expiry]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 01:20]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Maps random 64-bit session ids to {@link GameState}s. The map is split into {@link #STRIPES}
+ * independently locked stripes, so requests for different games rarely meet on a lock, and a
+ * game's state is only touched while its stripe is held. Locks are {@link ReentrantLock}s rather
+ * than monitors so that a virtual thread blocked on a stripe does not pin its carrier.
+ * <p>
+ * Idle games expire after the TTL. Instead of one timer per game, a single ticker advances a
+ * hashed timer wheel with one slot per tick of the TTL; every game has exactly one pending entry
+ * (its id) in the slot of its deadline. Accesses only record the current tick; when a slot fires,
+ * each game in it is either evicted or, if it was used since, moved to the slot of its new
+ * deadline. An evicted game leaves no reference behind.
+ */
+public final class SessionStore implements AutoCloseable {
+
+    /**
+     * Number of stripes; a power of two.
+     */
+    public static final int STRIPES = 64;
+
+    /**
+     * Default idle time before a game is evicted, overridable with
+     * {@code -Dnumberle.session.ttlSeconds}.
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(Long.getLong("numberle.session.ttlSeconds", 1800));
+
+    /**
+     * Bookkeeping per game besides the state itself: hash map node, boxed key, table slot and
+     * wheel entry.
+     */
+    private static final int ENTRY_BYTES = 32 + 16 + 8 + 8;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final Slot[] wheel;
+
+    private final int ttlTicks;
+
+    private final ScheduledExecutorService ticker;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final AtomicInteger live = new AtomicInteger();
+
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * Told the id of every game evicted for idleness, on the expiry thread.
+     */
+    private volatile LongConsumer evictionListener = id -> {
+    };
+
+    /**
+     * Ticks since creation; written only by the ticker.
+     */
+    private volatile int now;
+
+    public SessionStore() {
+        this(DEFAULT_TTL, Duration.ofSeconds(1));
+    }
+
+    /**
+     * @param ttl  idle time after which a game is evicted
+     * @param tick resolution of the expiry; games live between {@code ttl} and {@code ttl + tick}
+     */
+    public SessionStore(Duration ttl, Duration tick) {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.ttlTicks = (int) Math.max(1, (ttl.toMillis() + tick.toMillis() - 1) / tick.toMillis());
+        this.wheel = new Slot[ttlTicks + 1];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Slot();
+        }
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers a new game.
+     *
+     * @return its id
+     */
+    public long create(GameState state) {
+        while (true) {
+            long id = random.nextLong();
+            Stripe stripe = stripe(id);
+            stripe.lock.lock();
+            try {
+                if (stripe.states.containsKey(id)) {
+                    continue;
+                }
+                state.lastAccess = now;
+                stripe.states.put(id, state);
+            } finally {
+                stripe.lock.unlock();
+            }
+            live.incrementAndGet();
+            schedule(id, state.lastAccess + ttlTicks);
+            return id;
+        }
+    }
+
+    /**
+     * Registers a game under a known id, replacing any game with that id; used when restoring games.
+     */
+    public void restore(long id, GameState state) {
+        Stripe stripe = stripe(id);
+        GameState previous;
+        stripe.lock.lock();
+        try {
+            state.lastAccess = now;
+            previous = stripe.states.put(id, state);
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (previous == null) {
+            live.incrementAndGet();
+            schedule(id, state.lastAccess + ttlTicks);
+        }
+    }
+
+    public void setEvictionListener(LongConsumer evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Runs an action on a game while holding its stripe, and marks the game as used.
+     *
+     * @return the action's result, or null if there is no such game
+     */
+    public <R> R with(long id, Function<GameState, R> action) {
+        Stripe stripe = stripe(id);
+        stripe.lock.lock();
+        try {
+            GameState state = stripe.states.get(id);
+            if (state == null) {
+                return null;
+            }
+            state.lastAccess = now;
+            return action.apply(state);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops a game; its wheel entry is discarded when it fires.
+     */
+    public boolean remove(long id) {
+        Stripe stripe = stripe(id);
+        stripe.lock.lock();
+        try {
+            if (stripe.states.remove(id) == null) {
+                return false;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        live.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return the number of games held
+     */
+    public int size() {
+        return live.get();
+    }
+
+    /**
+     * @return the number of games evicted for idleness so far
+     */
+    public long evictedCount() {
+        return evicted.sum();
+    }
+
+    /**
+     * @return an estimate of the heap held by the games of the board and their bookkeeping
+     */
+    public long estimatedBytes(BoardConfig board) {
+        return (long) size() * (GameState.estimatedBytes(board) + ENTRY_BYTES);
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Moves the wheel one tick and processes the games whose deadline it reaches.
+     */
+    void advance() {
+        int tick = now + 1;
+        now = tick;
+        Slot slot = wheel[tick % wheel.length];
+        LongList due;
+        slot.lock.lock();
+        try {
+            due = slot.ids;
+            slot.ids = new LongList();
+        } finally {
+            slot.lock.unlock();
+        }
+        for (int i = 0; i < due.size(); i++) {
+            expire(due.get(i), tick);
+        }
+    }
+
+    private void expire(long id, int tick) {
+        Stripe stripe = stripe(id);
+        int deadline;
+        stripe.lock.lock();
+        try {
+            GameState state = stripe.states.get(id);
+            if (state == null) {
+                return;
+            }
+            deadline = state.lastAccess + ttlTicks;
+            if (deadline <= tick) {
+                stripe.states.remove(id);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (deadline <= tick) {
+            live.decrementAndGet();
+            evicted.increment();
+            evictionListener.accept(id);
+        } else {
+            schedule(id, deadline);
+        }
+    }
+
+    private void schedule(long id, int deadline) {
+        Slot slot = wheel[deadline % wheel.length];
+        slot.lock.lock();
+        try {
+            slot.ids.add(id);
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    private Stripe stripe(long id) {
+        return stripes[(int) (id ^ (id >>> 32)) & (STRIPES - 1)];
+    }
+
+    private static final class Stripe {
+
+        final ReentrantLock lock = new ReentrantLock();
+
+        final Map<Long, GameState> states = new HashMap<>();
+    }
+
+    /**
+     * Ids of the games whose deadline falls on this slot's ticks.
+     */
+    private static final class Slot {
+
+        final ReentrantLock lock = new ReentrantLock();
+
+        LongList ids = new LongList();
+    }
+}
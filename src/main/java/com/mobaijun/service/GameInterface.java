@@ -1,6 +1,8 @@
 package com.mobaijun.service;
 
-import com.mobaijun.util.Observer;
+import com.mobaijun.engine.BoardConfig;
+import com.mobaijun.event.EventBus;
+import java.util.Iterator;
 
 /**
  * Description: [base interface]
@@ -30,12 +32,20 @@ public interface GameInterface {
     void back();
 
     /**
-     * Checks the equation and returns the result.
+     * Checks the equation and returns the result. Once the game is won or lost, every later check
+     * returns the same outcome without scoring the row, until a new game starts.
      *
      * @return an array containing the results of equation checking
      */
     int[] checkEquation();
 
+    /**
+     * Tells whether the current game is over.
+     *
+     * @return true once the game is won or lost, until a new game starts
+     */
+    boolean isFinished();
+
     /**
      * Gets the current line number.
      *
@@ -67,6 +77,20 @@ public interface GameInterface {
      */
     void startNewGame();
 
+    /**
+     * Starts a new game with the given answer instead of a random one.
+     *
+     * @param answer the equation to guess
+     */
+    void startNewGame(String answer);
+
+    /**
+     * Gets the equation to guess in the current game, without picking a new one.
+     *
+     * @return the answer of the current game
+     */
+    String getAnswer();
+
     /**
      * Gets an array of entered strings.
      *
@@ -75,21 +99,45 @@ public interface GameInterface {
     String[] getEnteredStrings();
 
     /**
-     * Adds an observer to the game.
+     * Suggests the next guess from the guesses and feedback seen so far.
      *
-     * @param observer the observer to be added
+     * @return the suggested equation, or null if no known equation fits the feedback
      */
-    void addObserver(Observer observer);
+    String getHint();
 
     /**
-     * Removes an observer from the game.
+     * Counts the equations still consistent with the guesses of the current game.
      *
-     * @param observer the observer to be removed
+     * @return the number of remaining possible answers
      */
-    void removeObserver(Observer observer);
+    int getRemainingCount();
 
     /**
-     * Notifies the observer about changes in the game state.
+     * Iterates over the equations still consistent with the guesses of the current game.
+     *
+     * @return the remaining possible answers; no guess may be scored while iterating
+     */
+    Iterator<String> getRemainingEquations();
+
+    /**
+     * Gets one of the equations still consistent with the guesses of the current game.
+     *
+     * @param rank position among the remaining answers, from 0 to {@link #getRemainingCount()} - 1
+     * @return the remaining answer at that position, in the same order as {@link #getRemainingEquations()}
+     */
+    String getRemainingEquation(int rank);
+
+    /**
+     * Gets the board the game is played on.
+     *
+     * @return the length of the equations and the number of attempts
+     */
+    BoardConfig getBoard();
+
+    /**
+     * Gets the bus the game publishes its events on.
+     *
+     * @return the event bus of this game
      */
-    void notifyObserver();
+    EventBus getEvents();
 }
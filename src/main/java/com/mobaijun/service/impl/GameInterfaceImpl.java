@@ -1,14 +1,24 @@
 package com.mobaijun.service.impl;
 
+import com.mobaijun.engine.BoardConfig;
+import com.mobaijun.engine.CandidateSet;
+import com.mobaijun.engine.EquationValidator;
+import com.mobaijun.engine.FeedbackScorer;
+import com.mobaijun.engine.GameCorpus;
+import com.mobaijun.engine.Symbols;
+import com.mobaijun.event.EventBus;
+import com.mobaijun.event.GameEvent;
 import com.mobaijun.service.GameInterface;
-import com.mobaijun.util.Observer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
-import java.util.Observable;
+import java.util.PrimitiveIterator;
 import java.util.Random;
 import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Description: [game impl]
@@ -16,35 +26,103 @@ import java.util.Stack;
  * Date: [2024/5/7 14:34]
  * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
  */
-public class GameInterfaceImpl extends Observable implements GameInterface {
+public class GameInterfaceImpl implements GameInterface {
 
     /**
-     * Array to store characters entered by the user.
+     * Run {@code -Dnumberle.legacyEvaluator=true} to validate guesses with the original
+     * {@link #calculateExpressionValue(String)} instead of the {@link EquationValidator}, for comparison.
      */
-    private final String[] enter = new String[7];
+    private static final boolean LEGACY_EVALUATOR = Boolean.getBoolean("numberle.legacyEvaluator");
 
     /**
-     * Collection of formulas.
+     * One-character strings of the ASCII characters, shared by every game's entered strings.
      */
-    private final List<String> equations;
+    private static final String[] ASCII = new String[128];
+
+    static {
+        for (char c = 0; c < ASCII.length; c++) {
+            ASCII[c] = String.valueOf(c).intern();
+        }
+    }
+
+    /**
+     * Characters entered by the user on the current row, as ASCII bytes; {@code input[0, cursor)}
+     * is filled.
+     */
+    private final byte[] input;
+
+    /**
+     * Number of characters entered on the current row.
+     */
+    private int cursor;
+
+    /**
+     * String view of the input handed out by {@link #getEnteredStrings()}, rebuilt only when it is
+     * asked for after the input changed.
+     */
+    private final String[] entered;
+
+    private boolean enteredStale;
+
+    /**
+     * Validity check of the board, a single bitmap lookup on classic and mini boards.
+     */
+    private final EquationValidator validity;
+
+    /**
+     * Length of the equations and number of attempts.
+     */
+    private final BoardConfig board;
+
+    /**
+     * Collection of formulas, shared with every other game over the same corpus.
+     */
+    private final GameCorpus corpus;
 
     /**
      * Current correct guess.
      */
     private String currentGuess;
 
+    /**
+     * Current correct guess, packed by {@link Symbols} for scoring.
+     */
+    private long answer;
+
+    /**
+     * Equations still consistent with the scored guesses of the current game.
+     */
+    private final CandidateSet candidates;
+
     /**
      * Current line number.
      */
     private int lineNum = 0;
 
     /**
-     * List of observers.
+     * Outcome of the current game once it is over: -6 if won, -5 if lost, 0 while it is played.
      */
-    private final List<Observer> observers = new LinkedList<>();
+    private int outcome;
+
+    /**
+     * Typed events of this game, delivered asynchronously.
+     */
+    private final EventBus events = new EventBus();
 
     public GameInterfaceImpl(List<String> equations) {
-        this.equations = equations;
+        this(new GameCorpus(equations, BoardConfig.CLASSIC));
+    }
+
+    /**
+     * Creates a game over a corpus shared with other games; only the per-game state is allocated.
+     */
+    public GameInterfaceImpl(GameCorpus corpus) {
+        this.corpus = corpus;
+        this.board = corpus.getBoard();
+        this.input = new byte[board.length()];
+        this.entered = new String[board.length()];
+        this.validity = board.newValidator();
+        this.candidates = corpus.getIndex().newSet();
         getCurrentGuess();
     }
 
@@ -52,16 +130,17 @@ public class GameInterfaceImpl extends Observable implements GameInterface {
      * Add the character entered by the user
      *
      * @Pre none
-     * @Post adds the string s to the character array enter and does nothing if the array is full.
+     * @Post appends the first character of s to the input, or does nothing if the row is full or s
+     * is empty. A character outside ASCII is entered as '?', which is not a board symbol either.
      */
     @Override
     public void processInput(String s) {
-        for (int i = 0; i < enter.length; i++) {
-            if (enter[i] == null) {
-                enter[i] = s;
-                break;
-            }
+        if (cursor == input.length || s == null || s.isEmpty()) {
+            return;
         }
+        char c = s.charAt(0);
+        input[cursor++] = (byte) (c < ASCII.length ? c : '?');
+        inputChanged();
     }
 
     /**
@@ -74,37 +153,23 @@ public class GameInterfaceImpl extends Observable implements GameInterface {
      */
     @Override
     public Boolean checkEnter() {
-        for (String s : enter) {
-            if (s == null) {
-                return true;
-            }
-        }
-        return false;
+        return cursor < input.length;
     }
 
     /**
      * User deletes characters
      *
      * @Pre none.
-     * @Post removes the last non-null element of the array enter, or does nothing if the array is empty.
+     * @Post removes the last entered character, or does nothing if the row is empty.
      */
     @Override
     public void back() {
-        boolean check = true;
-        for (int i = 0; i < enter.length; i++) {
-            if (enter[i] == null) {
-                if (i == 0) {
-                    return;
-                }
-                enter[i - 1] = null;
-                check = false;
-            }
+        if (cursor == 0) {
+            return;
         }
-        if (check) {
-            enter[6] = null;
-        }
-        assert (enter[enter.length - 1] == null) || (enter[enter.length - 1].isEmpty()) :
-                "The last element of the enter array should be null or the empty string.";
+        cursor--;
+        inputChanged();
+        assert cursor < input.length : "The last cell of the row should be empty.";
     }
 
 
@@ -117,7 +182,12 @@ public class GameInterfaceImpl extends Observable implements GameInterface {
      */
     @Override
     public int[] checkEquation() {
-        // Verify that the length of the equation is 7
+        // A finished game is locked until restarted, so its outcome is reported (and recorded) once
+        if (outcome != 0) {
+            return new int[]{outcome};
+        }
+
+        // Verify that the equation fills the row
         boolean checkLength = checkEnter();
         if (checkLength) {
             return new int[]{-4};
@@ -125,8 +195,8 @@ public class GameInterfaceImpl extends Observable implements GameInterface {
 
         // Verify that the expression has an equal sign
         boolean hasEquals = false;
-        for (String str : enter) {
-            if (str.equals("=")) {
+        for (byte b : input) {
+            if (b == '=') {
                 hasEquals = true;
                 break;
             }
@@ -137,8 +207,8 @@ public class GameInterfaceImpl extends Observable implements GameInterface {
 
         // Verify that an expression has an operator
         boolean hasOperators = false;
-        for (String str : enter) {
-            if (isOperator(str)) {
+        for (byte b : input) {
+            if (isOperator((char) b)) {
                 hasOperators = true;
                 break;
             }
@@ -148,71 +218,58 @@ public class GameInterfaceImpl extends Observable implements GameInterface {
         }
 
         // Verify that the expression is correct
-        int[] ints = new int[7];
+        boolean balanced = LEGACY_EVALUATOR ? isBalancedLegacy() : validity.isValid(input, 0);
+
+        // Verify that the values to the left and right of the expression are equal
+        if (balanced) {
+            long guess = Symbols.pack(input, 0, input.length);
+            int pattern = FeedbackScorer.score(guess, answer, input.length);
+            guessScored(pattern);
+            if (pattern == FeedbackScorer.SOLVED) {
+                gameOver(true);
+                return new int[]{-6};
+            } else {
+                if (lineNum + 1 == board.attempts()) {
+                    gameOver(false);
+                    return new int[]{-5};
+                }
+            }
+            candidates.narrow(guess, pattern);
+            // 0 correct position, 1 included elsewhere, 2 not included (or no copies left)
+            int[] ints = new int[input.length];
+            FeedbackScorer.unpack(pattern, ints.length, ints);
+            return ints;
+        } else {
+            return new int[]{-3};
+        }
+    }
+
+    /**
+     * Splits the entered characters at the first '=' and compares both sides with
+     * {@link #calculateExpressionValue(String)}.
+     *
+     * @Pre the row is full.
+     * @Post returns true if both sides evaluate to the same value within 1e-6.
+     */
+    private boolean isBalancedLegacy() {
         StringBuilder left = new StringBuilder();
         StringBuilder right = new StringBuilder();
         int equalIndex = 0;
-        for (int i = 0; i < enter.length; i++) {
-            if (enter[i].equals("=")) {
+        for (int i = 0; i < input.length; i++) {
+            if (input[i] == '=') {
                 equalIndex = i;
                 break;
             } else {
-                left.append(enter[i]);
+                left.append((char) input[i]);
             }
         }
-        for (int i = equalIndex + 1; i < enter.length; i++) {
-            right.append(enter[i]);
+        for (int i = equalIndex + 1; i < input.length; i++) {
+            right.append((char) input[i]);
         }
 
         double evalLeft = calculateExpressionValue(left.toString());
         double evalRight = calculateExpressionValue(right.toString());
-
-        // Verify that the values to the left and right of the expression are equal
-        if (Math.abs(evalLeft - evalRight) < 1e-6) {
-            char[] answer = currentGuess.toCharArray();
-            char[] guess = (left + "=" + right).toCharArray();
-            for (int i = 0; i < answer.length; i++) {
-                if (answer[i] == guess[i]) {
-                    // Characters are contained and in the correct position
-                    ints[i] = 0;
-                } else {
-                    boolean found = false;
-                    for (char c : answer) {
-                        if (c == guess[i]) {
-                            // Included but not in the right place
-                            ints[i] = 1;
-                            found = false;
-                            break;
-                        } else {
-                            found = true;
-                        }
-                    }
-                    if (found) {
-                        // This character is not included
-                        ints[i] = 2;
-                    }
-                }
-            }
-
-            boolean allCorrect = true;
-            for (int anInt : ints) {
-                if (anInt != 0) {
-                    allCorrect = false;
-                    break;
-                }
-            }
-            if (allCorrect) {
-                return new int[]{-6};
-            } else {
-                if (6 - (lineNum + 1) == 0) {
-                    return new int[]{-5};
-                }
-            }
-        } else {
-            return new int[]{-3};
-        }
-
-        return ints;
+        return Math.abs(evalLeft - evalRight) < 1e-6;
     }
 
     /**
@@ -250,7 +307,7 @@ public class GameInterfaceImpl extends Observable implements GameInterface {
                     i--;
                 }
                 operands.push(Double.parseDouble(num.toString()));
-            } else if (isOperator(Character.toString(ch))) {
+            } else if (isOperator(ch)) {
                 while (!operators.isEmpty() && hasPrecedence(ch, operators.peek())) {
                     operands.push(performOperation(operators.pop(), operands.pop(), operands.pop()));
                 }
@@ -267,14 +324,13 @@ public class GameInterfaceImpl extends Observable implements GameInterface {
     }
 
     /**
-     * Method to check if a string represents an operator
+     * Method to check if a character represents an operator
      *
-     * @Pre The input parameter str is a string.
-     * @Post Returns true if the input string represents an operator; otherwise returns false.
+     * @Pre none.
+     * @Post Returns true if the character represents an operator; otherwise returns false.
      */
-    private boolean isOperator(String str) {
-        assert str != null : "Input string must not be null"; // Precondition
-        return str.equals("+") || str.equals("-") || str.equals("*") || str.equals("/");
+    private boolean isOperator(char ch) {
+        return ch == '+' || ch == '-' || ch == '*' || ch == '/';
     }
 
 
@@ -321,6 +377,15 @@ public class GameInterfaceImpl extends Observable implements GameInterface {
     }
 
 
+    /**
+     * @Pre none.
+     * @Post Returns true once the current game is won or lost, until a new game starts.
+     */
+    @Override
+    public boolean isFinished() {
+        return outcome != 0;
+    }
+
     /**
      * @return lineNum
      * @Pre none.
@@ -339,6 +404,7 @@ public class GameInterfaceImpl extends Observable implements GameInterface {
     public void setLineNum(int lineNum) {
         assert lineNum >= 0 : "The lineNum parameter passed in is greater than or equal to 0";
         this.lineNum = lineNum;
+        inputChanged();
     }
 
     /**
@@ -347,87 +413,201 @@ public class GameInterfaceImpl extends Observable implements GameInterface {
      */
     @Override
     public String getCurrentGuess() {
-        // Randomly choose a formula from the correct formula as the correct answer
-        String result = currentGuess = equations.get(new Random().nextInt(equations.size()));
+        // Randomly choose a formula from the correct formula as the correct answer, in constant time
+        int id = new Random().nextInt(corpus.size());
+        answer = corpus.packed(id);
+        String result = currentGuess = corpus.getEquations().get(id);
         assert result != null : "Returned value must not be null.";
         return result;
     }
 
     /**
-     * Empty enter array
+     * Empty the input
      *
      * @Pre none.
-     * @Post Set all elements of the array enter to null.
+     * @Post The row holds no entered character.
      */
     @Override
     public void clear() {
-        Arrays.fill(enter, null);
-        assert Arrays.stream(enter).allMatch(Objects::isNull) : "All elements in the enter array should be null.";
+        cursor = 0;
+        inputChanged();
+        assert Arrays.stream(getEnteredStrings()).allMatch(Objects::isNull) : "All entered strings should be null.";
     }
 
     /**
      * Start a new game
      *
      * @Pre none.
-     * @Post Clear the array enter, reset the lineNum attribute to 0, and regenerate the currentGuess attribute.
+     * @Post Clear the input, reset the lineNum attribute to 0, and regenerate the currentGuess attribute.
      */
     @Override
     public void startNewGame() {
         clear();
         lineNum = 0;
+        outcome = 0;
+        candidates.reset();
         getCurrentGuess();
         //System.out.println(currentGuess);
-        assert Arrays.stream(enter).allMatch(Objects::isNull) : "All elements in the enter array should be null.";
+        assert cursor == 0 : "The input should be empty.";
         assert lineNum == 0 : "The lineNum attribute should be reset to 0.";
         assert !currentGuess.equals(getCurrentGuess()) : "The currentGuess property should be updated";
     }
 
+    /**
+     * Start a new game with a chosen answer
+     *
+     * @Pre answer is a valid equation of the board's length.
+     * @Post Clear the input, reset the lineNum attribute to 0 and make answer the equation to guess.
+     */
+    @Override
+    public void startNewGame(String answer) {
+        assert answer != null && answer.length() == board.length() : "The answer must fill a row of the board.";
+        clear();
+        lineNum = 0;
+        outcome = 0;
+        candidates.reset();
+        currentGuess = answer;
+        this.answer = Symbols.pack(answer);
+    }
+
+    /**
+     * @Pre none.
+     * @Post Returns the answer of the current game; unlike getCurrentGuess() it does not pick a new one.
+     */
+    @Override
+    public String getAnswer() {
+        return currentGuess;
+    }
+
     /**
      * @Pre none.
-     * @Post Returns enter array of the object.
+     * @Post Returns the entered characters of the row as one-character strings, null for empty
+     * cells. The array is owned by the game and refreshed by the next call after the input changes.
      */
     @Override
     public String[] getEnteredStrings() {
-        return enter;
+        if (enteredStale) {
+            for (int i = 0; i < entered.length; i++) {
+                entered[i] = i < cursor ? ASCII[input[i]] : null;
+            }
+            enteredStale = false;
+        }
+        return entered;
     }
 
     /**
-     * Add observer
+     * Suggest the next guess
      *
-     * @Pre The passed observer parameter is not null.
-     * @Post Adds the passed in observer object to the observers list.
+     * @Pre none.
+     * @Post Returns the corpus equation with the highest expected information given the scored
+     * guesses of this game, or null if none fits them. Returns within the solver's latency budget.
      */
     @Override
-    public void addObserver(Observer observer) {
-        assert observer != null : "The passed observer parameter cannot be null";
-        observers.add(observer);
-        assert observers.contains(observer) : "The observers list should contain the passed-in observer objects.";
+    public String getHint() {
+        return hint(candidates.toArray());
     }
 
     /**
-     * Remove observer
+     * Suggest the next guess on another thread
      *
-     * @Pre The passed observer parameter is not null.
-     * @Post Removes the passed-in observer object from the observers list.
+     * @Pre none.
+     * @Post Takes the remaining answers on the calling thread and returns a future completing on the
+     * executor with the hint getHint() would return now; guesses scored meanwhile do not affect it.
      */
-    @Override
-    public void removeObserver(Observer observer) {
-        assert observer != null : "The passed observer parameter cannot be null";
-        observers.remove(observer);
-        assert !observers.contains(observer) : "The observers list should not contain the passed-in observer objects.";
+    public CompletableFuture<String> getHint(Executor executor) {
+        int[] remaining = candidates.toArray();
+        return CompletableFuture.supplyAsync(() -> hint(remaining), executor);
+    }
+
+    private String hint(int[] remaining) {
+        int id = corpus.getSolver().suggest(remaining);
+        return id < 0 ? null : corpus.getEquations().get(id);
     }
 
     /**
-     * Update notify
+     * Count the remaining answers
      *
      * @Pre none.
-     * @Post Notify all observer objects.
+     * @Post Returns how many equations are still consistent with the scored guesses of this game.
+     */
+    @Override
+    public int getRemainingCount() {
+        return candidates.count();
+    }
+
+    /**
+     * Iterate over the remaining answers
+     *
+     * @Pre no guess is scored while iterating.
+     * @Post Returns the equations still consistent with the scored guesses of this game.
+     */
+    @Override
+    public Iterator<String> getRemainingEquations() {
+        PrimitiveIterator.OfInt ids = candidates.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return corpus.getEquations().get(ids.nextInt());
+            }
+        };
+    }
+
+    /**
+     * Get one remaining answer
+     *
+     * @Pre 0 <= rank < getRemainingCount().
+     * @Post Returns the remaining equation at the given position of getRemainingEquations().
      */
     @Override
-    public void notifyObserver() {
-        // Notify every observer of the update
-        for (com.mobaijun.util.Observer item : observers) {
-            item.update();
+    public String getRemainingEquation(int rank) {
+        return corpus.getEquations().get(candidates.select(rank));
+    }
+
+    /**
+     * Events are only built when someone listens, so headless games pay nothing for them.
+     */
+    private void inputChanged() {
+        enteredStale = true;
+        if (events.hasSubscribers()) {
+            events.publish(new GameEvent.InputChanged(lineNum));
         }
     }
+
+    private void guessScored(int pattern) {
+        if (events.hasSubscribers()) {
+            int[] feedback = new int[input.length];
+            FeedbackScorer.unpack(pattern, feedback.length, feedback);
+            events.publish(new GameEvent.GuessScored(lineNum, new String(input, StandardCharsets.US_ASCII), feedback));
+        }
+    }
+
+    private void gameOver(boolean won) {
+        outcome = won ? -6 : -5;
+        if (events.hasSubscribers()) {
+            events.publish(new GameEvent.GameOver(won, currentGuess));
+        }
+    }
+
+    /**
+     * @Pre none.
+     * @Post Returns the board of this game.
+     */
+    @Override
+    public BoardConfig getBoard() {
+        return board;
+    }
+
+    /**
+     * @Pre none.
+     * @Post Returns the bus on which this game publishes input changes, scored guesses and game over.
+     */
+    @Override
+    public EventBus getEvents() {
+        return events;
+    }
 }
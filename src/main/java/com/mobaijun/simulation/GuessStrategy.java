@@ -0,0 +1,66 @@
+package com.mobaijun.simulation;
+
+import com.mobaijun.service.GameInterface;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Description: [guessing strategy for headless games]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 00:20]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Chooses the next guess of a game from what the model knows about it. A strategy is called by
+ * one thread at a time per model, but the same instance is shared by every worker of a
+ * {@link Simulator}, so it must not keep per-game state.
+ */
+@FunctionalInterface
+public interface GuessStrategy {
+
+    /**
+     * @param game   the model of the game being played, after {@code turn} scored guesses
+     * @param turn   number of guesses already made, starting at 0
+     * @param random the worker's random source
+     * @return the next guess, or null to give up
+     */
+    String nextGuess(GameInterface game, int turn, Random random);
+
+    /**
+     * Always plays the first equation still consistent with the feedback.
+     */
+    static GuessStrategy firstCandidate() {
+        return (game, turn, random) -> {
+            Iterator<String> remaining = game.getRemainingEquations();
+            return remaining.hasNext() ? remaining.next() : null;
+        };
+    }
+
+    /**
+     * Plays a uniformly random equation among those still consistent with the feedback.
+     */
+    static GuessStrategy randomCandidate() {
+        return (game, turn, random) -> {
+            int count = game.getRemainingCount();
+            return count == 0 ? null : game.getRemainingEquation(random.nextInt(count));
+        };
+    }
+
+    /**
+     * Plays the entropy solver's hint.
+     */
+    static GuessStrategy hint() {
+        return (game, turn, random) -> game.getHint();
+    }
+
+    /**
+     * @param name one of {@code first}, {@code random} or {@code hint}
+     */
+    static GuessStrategy named(String name) {
+        return switch (name) {
+            case "first" -> firstCandidate();
+            case "random" -> randomCandidate();
+            case "hint" -> hint();
+            default -> throw new IllegalArgumentException("Unknown strategy: " + name);
+        };
+    }
+}
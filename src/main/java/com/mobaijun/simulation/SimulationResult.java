@@ -0,0 +1,58 @@
+package com.mobaijun.simulation;
+
+/**
+ * Description: [aggregated outcome of simulated games]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 00:20]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ *
+ * @param games     number of games played
+ * @param wins      number of games solved within the attempt limit
+ * @param histogram {@code histogram[n]} is the number of games won with exactly {@code n} guesses
+ * @param invalid   number of games lost because the strategy gave up or played an invalid equation
+ * @param nanos     wall-clock time of the run
+ */
+public record SimulationResult(long games, long wins, long[] histogram, long invalid, long nanos) {
+
+    public double winRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    /**
+     * @return the mean number of guesses of the won games
+     */
+    public double averageGuesses() {
+        long total = 0;
+        for (int n = 1; n < histogram.length; n++) {
+            total += n * histogram[n];
+        }
+        return wins == 0 ? 0 : (double) total / wins;
+    }
+
+    public double gamesPerSecond() {
+        return nanos == 0 ? 0 : games * 1e9 / nanos;
+    }
+
+    /**
+     * Adds the counts of another partial result; the time of this result is kept.
+     */
+    SimulationResult plus(SimulationResult other) {
+        long[] merged = histogram.clone();
+        for (int n = 0; n < merged.length; n++) {
+            merged[n] += other.histogram[n];
+        }
+        return new SimulationResult(games + other.games, wins + other.wins, merged, invalid + other.invalid, nanos);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("games: %d, win rate: %.2f%%, average guesses: %.3f, invalid: %d, %.0f games/s%n",
+                games, winRate() * 100, averageGuesses(), invalid, gamesPerSecond()));
+        for (int n = 1; n < histogram.length; n++) {
+            builder.append(String.format("  %d guesses: %d%n", n, histogram[n]));
+        }
+        builder.append(String.format("  lost: %d", games - wins));
+        return builder.toString();
+    }
+}
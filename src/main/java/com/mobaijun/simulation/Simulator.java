@@ -0,0 +1,156 @@
+package com.mobaijun.simulation;
+
+import com.mobaijun.engine.BoardConfig;
+import com.mobaijun.engine.GameCorpus;
+import com.mobaijun.service.GameInterface;
+import com.mobaijun.service.impl.GameInterfaceImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Description: [headless parallel game simulator]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 00:20]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Plays complete games without any view: picks a random answer, asks a {@link GuessStrategy} for
+ * guesses, types them into the model and reads {@link GameInterface#checkEquation()} like the
+ * views do. Each worker thread owns its model and random source and claims games in batches
+ * from a shared counter, so workers only meet when they take a batch and when the partial
+ * results are merged.
+ */
+public final class Simulator {
+
+    /**
+     * Games claimed by a worker at a time.
+     */
+    private static final int BATCH = 256;
+
+    private final List<String> answers;
+
+    private final Supplier<? extends GameInterface> models;
+
+    private final GuessStrategy strategy;
+
+    private final int threads;
+
+    /**
+     * Plays on {@link GameInterfaceImpl} models over the given corpus, one per thread; the models
+     * share one {@link GameCorpus}.
+     */
+    public Simulator(List<String> equations, GuessStrategy strategy, int threads) {
+        this(new GameCorpus(equations, BoardConfig.CLASSIC), strategy, threads);
+    }
+
+    /**
+     * Plays on {@link GameInterfaceImpl} models sharing the given corpus, one per thread, on the
+     * corpus's board.
+     */
+    public Simulator(GameCorpus corpus, GuessStrategy strategy, int threads) {
+        this(corpus.getEquations(), () -> new GameInterfaceImpl(corpus), strategy, threads);
+    }
+
+    /**
+     * @param answers  the equations answers are drawn from
+     * @param models   creates one model per worker thread
+     * @param strategy chooses the guesses
+     * @param threads  number of worker threads
+     */
+    public Simulator(List<String> answers, Supplier<? extends GameInterface> models, GuessStrategy strategy,
+                     int threads) {
+        this.answers = List.copyOf(answers);
+        this.models = models;
+        this.strategy = strategy;
+        this.threads = threads;
+    }
+
+    /**
+     * Plays the given number of games.
+     *
+     * @param seed base seed; worker {@code i} uses {@code seed + i}
+     */
+    public SimulationResult run(long games, long seed) throws InterruptedException {
+        AtomicLong next = new AtomicLong();
+        List<Callable<SimulationResult>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            long workerSeed = seed + i;
+            workers.add(() -> play(next, games, new Random(workerSeed)));
+        }
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            SimulationResult total = null;
+            for (Future<SimulationResult> partial : executor.invokeAll(workers)) {
+                total = total == null ? partial.get() : total.plus(partial.get());
+            }
+            return new SimulationResult(total.games(), total.wins(), total.histogram(), total.invalid(),
+                    System.nanoTime() - start);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation worker failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private SimulationResult play(AtomicLong next, long games, Random random) {
+        GameInterface game = models.get();
+        BoardConfig board = game.getBoard();
+        long played = 0;
+        long wins = 0;
+        long invalid = 0;
+        long[] histogram = new long[board.attempts() + 1];
+        long from;
+        while ((from = next.getAndAdd(BATCH)) < games) {
+            long to = Math.min(games, from + BATCH);
+            for (long g = from; g < to; g++) {
+                int guesses = playOne(game, board, answers.get(random.nextInt(answers.size())), random);
+                played++;
+                if (guesses > 0) {
+                    wins++;
+                    histogram[guesses]++;
+                } else if (guesses < 0) {
+                    invalid++;
+                }
+            }
+        }
+        return new SimulationResult(played, wins, histogram, invalid, 0);
+    }
+
+    /**
+     * @return the number of guesses that solved the game, 0 if it was lost, -1 if the strategy
+     * gave up or played an invalid equation
+     */
+    private int playOne(GameInterface game, BoardConfig board, String answer, Random random) {
+        game.startNewGame(answer);
+        for (int turn = 0; turn < board.attempts(); turn++) {
+            String guess = strategy.nextGuess(game, turn, random);
+            if (guess == null || guess.length() != board.length()) {
+                return -1;
+            }
+            for (int i = 0; i < guess.length(); i++) {
+                game.processInput(String.valueOf(guess.charAt(i)));
+            }
+            int[] verify = game.checkEquation();
+            game.clear();
+            if (verify[0] == -6) {
+                return turn + 1;
+            }
+            if (verify[0] == -5) {
+                return 0;
+            }
+            if (verify.length == 1) {
+                return -1;
+            }
+            game.setLineNum(turn + 1);
+        }
+        return 0;
+    }
+}
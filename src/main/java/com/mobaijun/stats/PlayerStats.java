@@ -0,0 +1,66 @@
+package com.mobaijun.stats;
+
+import com.mobaijun.engine.BoardConfig;
+
+/**
+ * Description: [statistics of one player]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 03:00]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ *
+ * @param player        the player's name
+ * @param played        number of games finished
+ * @param wins          number of games solved within the attempt limit
+ * @param currentStreak number of games won in a row up to the last one
+ * @param maxStreak     longest run of games won in a row
+ * @param histogram     {@code histogram[n]} is the number of games won with exactly {@code n} guesses
+ * @param lastPlayed    epoch milliseconds of the last finished game, 0 if none
+ */
+public record PlayerStats(String player, int played, int wins, int currentStreak, int maxStreak, int[] histogram,
+                          long lastPlayed) {
+
+    /**
+     * Most guesses a recorded game may use, the attempts of every preset board; the histogram has
+     * one more slot, index 0 being unused. See {@link StatsStore#canRecord(BoardConfig)}.
+     */
+    public static final int MAX_GUESSES = BoardConfig.DEFAULT_ATTEMPTS;
+
+    /**
+     * @return the statistics of a player who has not finished a game yet
+     */
+    public static PlayerStats empty(String player) {
+        return new PlayerStats(player, 0, 0, 0, 0, new int[MAX_GUESSES + 1], 0);
+    }
+
+    /**
+     * @param won     true if the game was solved
+     * @param guesses guesses used to solve it; ignored when lost
+     * @param when    epoch milliseconds at which it finished
+     * @return these statistics with one more finished game
+     */
+    public PlayerStats plus(boolean won, int guesses, long when) {
+        int[] merged = histogram.clone();
+        if (won) {
+            merged[guesses]++;
+        }
+        int streak = won ? currentStreak + 1 : 0;
+        return new PlayerStats(player, played + 1, wins + (won ? 1 : 0), streak, Math.max(maxStreak, streak), merged,
+                when);
+    }
+
+    public double winRate() {
+        return played == 0 ? 0 : (double) wins / played;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%s: played %d, win rate %.0f%%, current streak %d, max streak %d%n",
+                player, played, winRate() * 100, currentStreak, maxStreak));
+        for (int n = 1; n < histogram.length; n++) {
+            builder.append(String.format("  %d guesses: %d%n", n, histogram[n]));
+        }
+        builder.append(String.format("  lost: %d", played - wins));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,376 @@
+package com.mobaijun.stats;
+
+import com.mobaijun.engine.BoardConfig;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Description: [file-backed player statistics store]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 03:00]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Keeps one fixed-width {@value #RECORD_BYTES}-byte record per player after a
+ * {@value #HEADER_BYTES}-byte header, little-endian:
+ * <pre>
+ *  0  32 bytes  name, UTF-8, zero padded
+ * 32  int       games played
+ * 36  int       wins
+ * 40  int       current streak
+ * 44  int       max streak
+ * 48  6 ints    wins with 1 to 6 guesses
+ * 72  long      last played, epoch milliseconds
+ * </pre>
+ * Only the name to record slot index is kept in memory. {@link #record} never touches the file:
+ * it queues the result, and a single writer thread applies the queue every batch interval,
+ * reading and rewriting each player's record once per batch however many games it holds, then
+ * forcing the file once. {@link #totals()} streams the file through one small buffer, so it does
+ * not depend on the number of players for memory.
+ */
+@Slf4j
+public final class StatsStore implements AutoCloseable {
+
+    public static final int NAME_BYTES = 32;
+
+    public static final int RECORD_BYTES = 80;
+
+    public static final int HEADER_BYTES = 16;
+
+    /**
+     * "NSTS", then the format version and the record size.
+     */
+    private static final int MAGIC = 0x4E535453;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Default interval between batches, overridable with {@code -Dnumberle.stats.batchMillis}.
+     */
+    public static final Duration DEFAULT_BATCH = Duration.ofMillis(Long.getLong("numberle.stats.batchMillis", 200));
+
+    /**
+     * Default store, overridable with {@code -Dnumberle.stats}.
+     */
+    public static final Path DEFAULT_FILE = Path.of(System.getProperty("numberle.stats", "numberle-stats.bin"));
+
+    /**
+     * Player of the local clients, overridable with {@code -Dnumberle.player}.
+     */
+    public static final String DEFAULT_PLAYER = System.getProperty("numberle.player", System.getProperty("user.name"));
+
+    /**
+     * Records read per buffer while streaming.
+     */
+    private static final int STREAM_RECORDS = 819;
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    /**
+     * Slot of every player; a player appears once its first record is written.
+     */
+    private final Map<String, Integer> index = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<Update> pending = new ConcurrentLinkedQueue<>();
+
+    private final ScheduledExecutorService writer;
+
+    /**
+     * Slots in use; written only by the writer thread.
+     */
+    private int slots;
+
+    public StatsStore(Path file) throws IOException {
+        this(file, DEFAULT_BATCH);
+    }
+
+    /**
+     * Opens or creates a store and indexes its players.
+     *
+     * @param batch interval between batches of updates
+     */
+    public StatsStore(Path file, Duration batch) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            readIndex();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::drainQuietly, batch.toMillis(), batch.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Tells whether the games of a board fit the records, whose histogram has a fixed
+     * {@link PlayerStats#MAX_GUESSES} slots.
+     */
+    public static boolean canRecord(BoardConfig board) {
+        return board.attempts() <= PlayerStats.MAX_GUESSES;
+    }
+
+    /**
+     * Queues the result of a finished game; returns at once.
+     *
+     * @param guesses guesses used to solve the game, 1 to {@link PlayerStats#MAX_GUESSES}; ignored when lost
+     * @return the player's statistics once the batch holding this game is on disk
+     */
+    public CompletableFuture<PlayerStats> record(String player, boolean won, int guesses) {
+        checkName(player);
+        if (won && (guesses < 1 || guesses > PlayerStats.MAX_GUESSES)) {
+            throw new IllegalArgumentException("Guesses out of range: " + guesses);
+        }
+        Update update = new Update(player, won, guesses, System.currentTimeMillis(), new CompletableFuture<>());
+        pending.add(update);
+        return update.done;
+    }
+
+    /**
+     * Writes the queued results now instead of at the next batch.
+     *
+     * @return completes once they are on disk
+     */
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.runAsync(this::drain, writer);
+    }
+
+    /**
+     * @return the player's statistics as of the last batch written
+     */
+    public PlayerStats get(String player) {
+        Integer slot = index.get(player);
+        if (slot == null) {
+            return PlayerStats.empty(player);
+        }
+        ByteBuffer buffer = buffer(RECORD_BYTES);
+        try {
+            channel.read(buffer, offset(slot));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return decode(buffer.flip(), 0);
+    }
+
+    /**
+     * @return the number of players with a record
+     */
+    public int playerCount() {
+        return index.size();
+    }
+
+    /**
+     * Adds up every record, streaming the file: games, wins, the longest streak of any player and
+     * the guess distribution of all won games.
+     */
+    public PlayerStats totals() {
+        long played = 0;
+        long wins = 0;
+        int maxStreak = 0;
+        long lastPlayed = 0;
+        long[] histogram = new long[PlayerStats.MAX_GUESSES + 1];
+        ByteBuffer buffer = buffer(STREAM_RECORDS * RECORD_BYTES);
+        try {
+            long size = channel.size();
+            for (long position = HEADER_BYTES; position < size; ) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                position += read;
+                buffer.flip();
+                // A partly read record is read again with the next buffer
+                int records = buffer.remaining() / RECORD_BYTES;
+                position -= buffer.remaining() - (long) records * RECORD_BYTES;
+                for (int r = 0; r < records; r++) {
+                    int at = r * RECORD_BYTES;
+                    played += buffer.getInt(at + 32);
+                    wins += buffer.getInt(at + 36);
+                    maxStreak = Math.max(maxStreak, buffer.getInt(at + 44));
+                    for (int n = 1; n <= PlayerStats.MAX_GUESSES; n++) {
+                        histogram[n] += buffer.getInt(at + 44 + 4 * n);
+                    }
+                    lastPlayed = Math.max(lastPlayed, buffer.getLong(at + 72));
+                }
+                if (records == 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int[] counts = new int[histogram.length];
+        for (int n = 0; n < counts.length; n++) {
+            counts[n] = (int) Math.min(Integer.MAX_VALUE, histogram[n]);
+        }
+        return new PlayerStats("all players", (int) Math.min(Integer.MAX_VALUE, played),
+                (int) Math.min(Integer.MAX_VALUE, wins), 0, maxStreak, counts, lastPlayed);
+    }
+
+    /**
+     * Writes the queued results and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush().join();
+        } finally {
+            writer.shutdownNow();
+            channel.close();
+        }
+    }
+
+    private void readIndex() throws IOException {
+        long size = channel.size();
+        ByteBuffer header = buffer(HEADER_BYTES);
+        if (size == 0) {
+            header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(0).flip();
+            channel.write(header, 0);
+            return;
+        }
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION
+                || header.getInt() != RECORD_BYTES) {
+            throw new IOException("Not a statistics store: " + file);
+        }
+        ByteBuffer name = buffer(NAME_BYTES);
+        int count = (int) ((size - HEADER_BYTES) / RECORD_BYTES);
+        for (int slot = 0; slot < count; slot++) {
+            name.clear();
+            channel.read(name, offset(slot));
+            index.put(decodeName(name.flip()), slot);
+        }
+        slots = count;
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.error("Failed to write statistics to {}", file, e);
+        }
+    }
+
+    /**
+     * Applies the queued results, one read and one write per player, then forces the file once.
+     * Runs on the writer thread only.
+     */
+    private void drain() {
+        Map<String, List<Update>> byPlayer = new LinkedHashMap<>();
+        for (Update update = pending.poll(); update != null; update = pending.poll()) {
+            byPlayer.computeIfAbsent(update.player, player -> new ArrayList<>()).add(update);
+        }
+        if (byPlayer.isEmpty()) {
+            return;
+        }
+        List<Runnable> completions = new ArrayList<>();
+        Map<String, Integer> added = new LinkedHashMap<>();
+        ByteBuffer buffer = buffer(RECORD_BYTES);
+        try {
+            for (Map.Entry<String, List<Update>> entry : byPlayer.entrySet()) {
+                String player = entry.getKey();
+                Integer slot = index.get(player);
+                PlayerStats stats = slot == null ? PlayerStats.empty(player) : get(player);
+                if (slot == null) {
+                    slot = slots++;
+                    added.put(player, slot);
+                }
+                for (Update update : entry.getValue()) {
+                    stats = stats.plus(update.won, update.guesses, update.when);
+                }
+                buffer.clear();
+                encode(stats, buffer);
+                channel.write(buffer.flip(), offset(slot));
+                PlayerStats result = stats;
+                for (Update update : entry.getValue()) {
+                    completions.add(() -> update.done.complete(result));
+                }
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            byPlayer.values().forEach(updates -> updates.forEach(update -> update.done.completeExceptionally(e)));
+            throw new UncheckedIOException(e);
+        }
+        index.putAll(added);
+        completions.forEach(Runnable::run);
+    }
+
+    private static long offset(int slot) {
+        return HEADER_BYTES + (long) slot * RECORD_BYTES;
+    }
+
+    private static ByteBuffer buffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void checkName(String player) {
+        if (player == null || player.isEmpty() || player.getBytes(StandardCharsets.UTF_8).length > NAME_BYTES) {
+            throw new IllegalArgumentException("Player names must have 1 to " + NAME_BYTES + " UTF-8 bytes: " + player);
+        }
+    }
+
+    private static void encode(PlayerStats stats, ByteBuffer buffer) {
+        byte[] name = stats.player().getBytes(StandardCharsets.UTF_8);
+        buffer.put(name).put(new byte[NAME_BYTES - name.length])
+                .putInt(stats.played())
+                .putInt(stats.wins())
+                .putInt(stats.currentStreak())
+                .putInt(stats.maxStreak());
+        for (int n = 1; n <= PlayerStats.MAX_GUESSES; n++) {
+            buffer.putInt(stats.histogram()[n]);
+        }
+        buffer.putLong(stats.lastPlayed());
+    }
+
+    private static PlayerStats decode(ByteBuffer buffer, int at) {
+        String player = decodeName(buffer.slice(at, NAME_BYTES));
+        int[] histogram = new int[PlayerStats.MAX_GUESSES + 1];
+        for (int n = 1; n <= PlayerStats.MAX_GUESSES; n++) {
+            histogram[n] = buffer.getInt(at + 44 + 4 * n);
+        }
+        return new PlayerStats(player, buffer.getInt(at + 32), buffer.getInt(at + 36), buffer.getInt(at + 40),
+                buffer.getInt(at + 44), histogram, buffer.getLong(at + 72));
+    }
+
+    private static String decodeName(ByteBuffer name) {
+        int length = 0;
+        while (length < name.remaining() && name.get(name.position() + length) != 0) {
+            length++;
+        }
+        byte[] bytes = new byte[length];
+        name.get(name.position(), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Update(String player, boolean won, int guesses, long when, CompletableFuture<PlayerStats> done) {
+    }
+}
@@ -1,11 +1,14 @@
 package com.mobaijun.util;
 
 import com.mobaijun.controller.GameController;
+import com.mobaijun.engine.BoardConfig;
+import com.mobaijun.engine.Symbols;
 import com.mobaijun.service.impl.GameInterfaceImpl;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import javax.swing.*;
 import lombok.Setter;
@@ -17,7 +20,7 @@ import lombok.Setter;
  * Date: [2024/5/7 15:25]
  * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
  */
-public class GameView extends JFrame implements Observer {
+public class GameView extends JFrame {
 
     /**
      * This class represents the graphical user interface (GUI) for the game.
@@ -43,6 +46,26 @@ public class GameView extends JFrame implements Observer {
      */
     private List<JButton> jButtons;
 
+    /**
+     * Keyboard buttons indexed by symbol code, so colouring a key is a lookup rather than a scan.
+     */
+    private JButton[] keys;
+
+    /**
+     * Best feedback each key has shown this game, indexed like {@link #keys}: 0 green, 1 orange,
+     * 2 gray, {@link #KEY_UNUSED} before the symbol is guessed.
+     */
+    private int[] keyFeedback;
+
+    private static final int KEY_UNUSED = 3;
+
+    /**
+     * Backgrounds given by the look and feel, restored when a game restarts.
+     */
+    private Color cellBackground;
+
+    private Color keyBackground;
+
     /**
      * Constructs a new GameView with the provided controller and model.
      *
@@ -69,12 +92,14 @@ public class GameView extends JFrame implements Observer {
         jTextFields = new ArrayList<>();//Input Box Collection
         jButtons = new ArrayList<>();
 
-        //Add Input Box
-        for (int i = 0; i < 42; i++) {
+        //Add Input Box, shrinking the cells so that a whole row fits the frame on long boards
+        BoardConfig board = model.getBoard();
+        int cellSize = Math.min(100, 840 / board.length() - 20);
+        for (int i = 0; i < board.cells(); i++) {
             JTextField jTextField = new JTextField();
-            jTextField.setPreferredSize(new Dimension(100, 100));
+            jTextField.setPreferredSize(new Dimension(cellSize, cellSize));
             jTextField.setHorizontalAlignment(JTextField.CENTER);
-            jTextField.setFont(new Font("12", 23, 33));
+            jTextField.setFont(new Font("12", 23, 33 * cellSize / 100));
             jTextField.setFocusable(false);
             jTextField.setEditable(false);
             jTextFields.add(jTextField);
@@ -142,6 +167,12 @@ public class GameView extends JFrame implements Observer {
         JButton exitButton = new JButton("End");
         exitButton.setPreferredSize(new Dimension(120, 40));
         exitButton.setFont(new Font("Arial", Font.BOLD, 16));
+        JButton hintButton = new JButton("Hint");
+        hintButton.setPreferredSize(new Dimension(120, 40));
+        hintButton.setFont(new Font("Arial", Font.BOLD, 16));
+        JButton statsButton = new JButton("Stats");
+        statsButton.setPreferredSize(new Dimension(120, 40));
+        statsButton.setFont(new Font("Arial", Font.BOLD, 16));
 
 
         jButtons.add(jButton);
@@ -163,7 +194,21 @@ public class GameView extends JFrame implements Observer {
         jButtons.add(jButton16);
         jButtons.add(restartButton);
         jButtons.add(exitButton);
-
+        jButtons.add(hintButton);
+        jButtons.add(statsButton);
+
+        cellBackground = jTextFields.get(0).getBackground();
+        keyBackground = jButton.getBackground();
+        keys = new JButton[Symbols.COUNT];
+        keyFeedback = new int[Symbols.COUNT];
+        Arrays.fill(keyFeedback, KEY_UNUSED);
+        for (JButton button : jButtons) {
+            String text = button.getText();
+            int code = text.length() == 1 ? Symbols.code(text.charAt(0)) : -1;
+            if (code >= 0) {
+                keys[code] = button;
+            }
+        }
 
         // Create a panel to hold the restart and end game buttons
         JPanel controlPanel = new JPanel();
@@ -171,6 +216,8 @@ public class GameView extends JFrame implements Observer {
         controlPanel.setPreferredSize(new Dimension(880, 60));
         controlPanel.add(restartButton);
         controlPanel.add(exitButton);
+        controlPanel.add(hintButton);
+        controlPanel.add(statsButton);
 
         //Adding a virtual keyboard to a page
         JPanel jPanel1 = new JPanel(new GridLayout(3, 6, 10, 10)); // 4 行 4 列，间隔为 10 像素
@@ -228,10 +275,14 @@ public class GameView extends JFrame implements Observer {
                     case "End":
                         handleEndButtonClick();
                         break;
+                    case "Hint":
+                        handleHintButtonClick();
+                        break;
+                    case "Stats":
+                        handleStatsButtonClick();
+                        break;
                     default:
                         model.processInput(buttonText);
-                        model.notifyObserver();
-                        update();
                         break;
                 }
                 setFocusable(true);
@@ -276,7 +327,6 @@ public class GameView extends JFrame implements Observer {
                         model.processInput("=");
                         break;
                 }
-                model.notifyObserver();
             }
         });
 
@@ -290,8 +340,6 @@ public class GameView extends JFrame implements Observer {
      */
     private void handleBackButtonClick() {
         model.back();
-        model.notifyObserver();
-        update();
     }
 
     /**
@@ -302,6 +350,8 @@ public class GameView extends JFrame implements Observer {
      * updates the view accordingly, and displays appropriate dialog messages.
      */
     public void handleEnterButtonClick() {
+        // Enter on a finished game shows its outcome again; it was recorded when the game ended
+        boolean finished = model.isFinished();
         int[] verify = model.checkEquation();
         if (verify[0] == -1) {//no equal sign
             displayDialog(0, "");
@@ -312,21 +362,29 @@ public class GameView extends JFrame implements Observer {
         } else if (verify[0] == -4) {//too short
             displayDialog(6, "");
         } else if (verify[0] == -5) {//lose
+            if (!finished) {
+                control.gameFinished(false, model.getLineNum() + 1);
+            }
             displayDialog(4, "");
         } else if (verify[0] == -6) {//win
-            setValidationColor(-1, model.getLineNum() * 7, "ok");
+            if (!finished) {
+                setValidationColor(-1, model.getLineNum() * model.getBoard().length(), "ok");
+                control.gameFinished(true, model.getLineNum() + 1);
+            }
             displayDialog(5, "");
         } else {//try again
-            if (verify.length == 7) {
+            int length = model.getBoard().length();
+            if (verify.length == length) {
                 // set color
                 for (int i = 0; i < verify.length; i++) {
-                    setValidationColor(verify[i], i + (model.getLineNum() * 7), model.getEnteredStrings()[i]);
+                    setValidationColor(verify[i], i + (model.getLineNum() * length), model.getEnteredStrings()[i]);
                 }
             }
             model.clear();
             model.setLineNum(model.getLineNum() + 1);
+            // Draw the row now rather than on the next frame, before the modal dialog opens
             update();
-            displayDialog(3, "You can try " + (6 - model.getLineNum()) + " times");
+            displayDialog(3, "You can try " + (model.getBoard().attempts() - model.getLineNum()) + " times");
         }
     }
 
@@ -338,8 +396,6 @@ public class GameView extends JFrame implements Observer {
      */
     public void handleRestartButtonClick() {
         control.gameOver(0);
-        model.notifyObserver();
-        update();
     }
 
     /**
@@ -350,7 +406,49 @@ public class GameView extends JFrame implements Observer {
      */
     public void handleEndButtonClick() {
         control.gameOver(1);
-        model.notifyObserver();
+    }
+
+    /**
+     * handle processing when "Hint" button is clicked
+     *
+     * @Pre: none.
+     * @Post: Shows the solver's suggestion for the next guess, or that no equation fits the feedback.
+     */
+    public void handleHintButtonClick() {
+        // The solver runs on the controller's hint thread; the dialog opens on the EDT once it answers
+        control.getHint().whenComplete((hint, error) -> SwingUtilities.invokeLater(() ->
+                displayDialog(7, error != null || hint == null ? "No hint available" : "Try: " + hint)));
+    }
+
+    /**
+     * Clears the board and the keyboard colours for a new game without rebuilding the frame.
+     *
+     * @Pre: the frame is initialized.
+     * @Post: Every cell is empty with its original background and every key has its original background.
+     */
+    public void reset() {
+        for (JTextField jTextField : jTextFields) {
+            if (!jTextField.getText().isEmpty()) {
+                jTextField.setText("");
+            }
+            jTextField.setBackground(cellBackground);
+        }
+        for (JButton key : keys) {
+            key.setBackground(keyBackground);
+        }
+        Arrays.fill(keyFeedback, KEY_UNUSED);
+    }
+
+    /**
+     * handle processing when "Stats" button is clicked
+     *
+     * @Pre: none.
+     * @Post: Shows the player's statistics, or that none are kept.
+     */
+    public void handleStatsButtonClick() {
+        // The store flushes on its own thread; the dialog opens on the EDT once the figures are in
+        control.getStats().whenComplete((stats, error) -> SwingUtilities.invokeLater(() -> displayDialog(8,
+                error != null ? "Statistics are unavailable" : stats == null ? "Statistics are not kept" : stats.toString())));
     }
 
     /**
@@ -370,36 +468,28 @@ public class GameView extends JFrame implements Observer {
      * @Post: Sets the background color of text fields and buttons based on the validation status and provided string.
      */
     public void setValidationColor(int i, int index, String s) {
-        if (i == 2) {
-            jTextFields.get(index).setBackground(Color.gray);
-            for (JButton jButton : jButtons) {
-                if (jButton.getText().equals(s)) {
-                    jButton.setBackground(Color.gray);
-                    break;
-                }
-            }
-        } else if (i == 1) {
-            jTextFields.get(index).setBackground(Color.orange);
-            for (JButton jButton : jButtons) {
-                if (jButton.getText().equals(s)) {
-                    jButton.setBackground(Color.orange);
-                    break;
-                }
-            }
-        } else if (i == 0) {
-            jTextFields.get(index).setBackground(Color.GREEN);
-            for (JButton jButton : jButtons) {
-                if (jButton.getText().equals(s)) {
-                    jButton.setBackground(Color.GREEN);
-                    break;
-                }
-            }
-            // The equation is correct
-        } else if (i == -1) {
-            for (int j = index; j < index + 7; j++) {
+        if (i == -1) {
+            // The equation is correct; each cell repaints only itself
+            for (int j = index; j < index + model.getBoard().length(); j++) {
                 jTextFields.get(j).setBackground(Color.GREEN);
             }
-            this.repaint();
+            return;
+        }
+        Color color = switch (i) {
+            case 0 -> Color.GREEN;
+            case 1 -> Color.orange;
+            case 2 -> Color.gray;
+            default -> null;
+        };
+        if (color == null) {
+            return;
+        }
+        jTextFields.get(index).setBackground(color);
+        // A key keeps its best colour: green over orange over gray, as a later guess may show less
+        int code = s.length() == 1 ? Symbols.code(s.charAt(0)) : -1;
+        if (code >= 0 && keys[code] != null && i < keyFeedback[code]) {
+            keyFeedback[code] = i;
+            keys[code].setBackground(color);
         }
     }
 
@@ -444,10 +534,21 @@ public class GameView extends JFrame implements Observer {
             JOptionPane optionPane = new JOptionPane("Too short", JOptionPane.ERROR_MESSAGE, JOptionPane.DEFAULT_OPTION, null, new Object[]{}, null);
             JDialog dialog = optionPane.createDialog("Equation Error");
             dialog.setVisible(true);
+        } else if (code == 7) {
+            JOptionPane optionPane = new JOptionPane(message, JOptionPane.INFORMATION_MESSAGE, JOptionPane.DEFAULT_OPTION, null, new Object[]{}, null);
+            JDialog dialog = optionPane.createDialog("Hint");
+            dialog.setVisible(true);
+        } else if (code == 8) {
+            JOptionPane optionPane = new JOptionPane(message, JOptionPane.INFORMATION_MESSAGE, JOptionPane.DEFAULT_OPTION, null, new Object[]{}, null);
+            JDialog dialog = optionPane.createDialog("Statistics");
+            dialog.setVisible(true);
         }
     }
 
-    @Override
+    /**
+     * @Pre: the controller is set.
+     * @Post: Redraws the row being typed from the model; runs on the EDT for every coalesced input change.
+     */
     public void update() {
         control.update();
     }
@@ -1,12 +0,0 @@
-package com.mobaijun.util;
-
-/**
- * Description: []
- * Author: [mobaijun]
- * Date: [2024/5/7 15:09]
- * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
- */
-public interface Observer {
-
-    void update();
-}
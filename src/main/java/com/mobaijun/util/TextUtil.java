@@ -1,10 +1,23 @@
 package com.mobaijun.util;
 
+import com.mobaijun.engine.BoardConfig;
+import com.mobaijun.engine.CorpusCache;
+import com.mobaijun.engine.CorpusLoader;
+import com.mobaijun.engine.CorpusSnapshot;
+import com.mobaijun.engine.FeedbackMatrix;
+import com.mobaijun.engine.GameCorpus;
 import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.LinkedList;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 
@@ -27,6 +40,11 @@ public class TextUtil {
      */
     public static final String FILE_PATH = HOME_PROJECT_PATH + "/src/main/resources/equations.txt";
 
+    /**
+     * Classpath resource of the equations, used when {@link #FILE_PATH} does not exist
+     */
+    public static final String EQUATIONS_RESOURCE = "/equations.txt";
+
     /**
      * Reads text from a file.
      *
@@ -39,13 +57,110 @@ public class TextUtil {
      * The IOException can be handled or propagated to the calling code for handling.
      */
     public static List<String> readTextFromFile() {
-        List<String> lines = new LinkedList<>();
+        return readTextFromFile(FILE_PATH);
+    }
+
+    /**
+     * Loads the corpus of a board.
+     *
+     * @Precondition For a 7-symbol board, a snapshot or the equations file is readable.
+     * @Postcondition On 7-symbol boards, returns the distinct equations of {@link #FILE_PATH}, or
+     * else of the {@code equations.txt} classpath resource. They are mapped from the snapshot named
+     * by {@code -Dnumberle.snapshot} when it was built from the current equations file, and loaded
+     * by {@link CorpusLoader} otherwise; a missing, corrupt or stale snapshot is then rewritten
+     * from them. Other lengths get their generated corpus. Its solver reads the feedback matrix
+     * named by {@code -Dnumberle.matrix} when that was built from the same corpus. An IOException
+     * is rethrown as an UncheckedIOException.
+     */
+    public static GameCorpus readCorpus(BoardConfig board) {
+        return withMatrix(loadCorpus(board));
+    }
+
+    private static GameCorpus loadCorpus(BoardConfig board) {
+        if (board.length() != BoardConfig.CLASSIC.length()) {
+            return CorpusCache.get(board);
+        }
+        String configured = System.getProperty(CorpusSnapshot.PATH_PROPERTY);
+        Path snapshot = configured != null ? Path.of(configured) : null;
+        try {
+            Path source = equationsFile();
+            if (snapshot != null && Files.isRegularFile(snapshot)) {
+                try {
+                    return CorpusSnapshot.load(snapshot, board, source);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Rebuilding corpus snapshot {}: {}", snapshot, e.getMessage());
+                }
+            }
+            GameCorpus corpus = new GameCorpus(CorpusLoader.load(source, board.length()), board);
+            if (snapshot != null) {
+                CorpusSnapshot.write(corpus, snapshot, source);
+                log.info("Wrote corpus snapshot {}", snapshot);
+            }
+            return corpus;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the corpus with a solver over the configured feedback matrix, or the corpus itself
+     * when none is configured or it does not fit
+     */
+    private static GameCorpus withMatrix(GameCorpus corpus) {
+        String configured = System.getProperty(FeedbackMatrix.PATH_PROPERTY);
+        if (configured == null) {
+            return corpus;
+        }
+        Path file = Path.of(configured);
+        try {
+            return corpus.withMatrix(FeedbackMatrix.load(file));
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Scoring hints without the feedback matrix {}: {}", file, e.getMessage());
+            return corpus;
+        }
+    }
 
-        // Read in the TXT file
-        File file = new File(FILE_PATH);
+    /**
+     * @return {@link #FILE_PATH} when it exists, otherwise the {@code equations.txt} classpath
+     * resource, copied to a temporary file when it is inside a jar
+     */
+    private static Path equationsFile() throws IOException {
+        Path file = Path.of(FILE_PATH);
+        if (Files.isRegularFile(file)) {
+            return file;
+        }
+        URL resource = TextUtil.class.getResource(EQUATIONS_RESOURCE);
+        if (resource == null) {
+            throw new FileNotFoundException(FILE_PATH + " (nor " + EQUATIONS_RESOURCE + " on the classpath)");
+        }
+        if ("file".equals(resource.getProtocol())) {
+            try {
+                return Path.of(resource.toURI());
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+        Path copy = Files.createTempFile("equations", ".txt");
+        copy.toFile().deleteOnExit();
+        try (InputStream in = resource.openStream()) {
+            Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return copy;
+    }
+
+    /**
+     * Reads text from the given file.
+     *
+     * @param path the text file to read
+     * @return the lines of the file, in order, with constant-time random access
+     * @Precondition path points to a readable UTF-8 text file.
+     * @Postcondition Returns the lines of the file; an IOException is rethrown as a RuntimeException.
+     */
+    public static List<String> readTextFromFile(String path) {
+        List<String> lines = new ArrayList<>();
 
         // Try-with-resources block ensures the BufferedReader is closed
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(path), StandardCharsets.UTF_8)) {
             String line = reader.readLine();
             while (line != null) {
                 lines.add(line);
@@ -0,0 +1,72 @@
+package com.mobaijun.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import junit.framework.TestCase;
+
+/**
+ * Description: [CandidateIndex tests]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 05:00]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Plays random games over the generated 6-symbol corpus and checks after every guess that the
+ * candidate set holds exactly the equations a brute-force rescoring keeps.
+ */
+public class CandidateIndexTest extends TestCase {
+
+    private static final int LENGTH = 6;
+
+    public void testNarrowMatchesBruteForce() {
+        List<String> equations = EquationGenerator.generate(LENGTH);
+        long[] corpus = new long[equations.size()];
+        for (int i = 0; i < corpus.length; i++) {
+            corpus[i] = Symbols.pack(equations.get(i));
+        }
+        CandidateIndex index = new CandidateIndex(corpus, LENGTH);
+        CandidateSet set = index.newSet();
+        SplittableRandom random = new SplittableRandom(11);
+        for (int game = 0; game < 40; game++) {
+            set.reset();
+            assertEquals(corpus.length, set.count());
+            long answer = corpus[random.nextInt(corpus.length)];
+            boolean[] expected = new boolean[corpus.length];
+            Arrays.fill(expected, true);
+            for (int turn = 0; turn < 4; turn++) {
+                // Mostly corpus guesses, sometimes symbol soup with repeats
+                long guess = turn % 2 == 0 ? corpus[random.nextInt(corpus.length)] : randomGuess(random);
+                int pattern = FeedbackScorer.score(guess, answer, LENGTH);
+                set.narrow(guess, pattern);
+                int count = 0;
+                for (int id = 0; id < corpus.length; id++) {
+                    expected[id] &= FeedbackScorer.score(guess, corpus[id], LENGTH) == pattern;
+                    assertEquals("game " + game + " turn " + turn + " id " + id, expected[id], set.contains(id));
+                    count += expected[id] ? 1 : 0;
+                }
+                assertEquals(count, set.count());
+                assertEquals(count, set.toArray().length);
+            }
+        }
+    }
+
+    public void testStoreAndArrayIndexesAgree() {
+        long[] corpus = {Symbols.pack("1+2=3"), Symbols.pack("4-1=3"), Symbols.pack("2*2=4")};
+        CandidateSet fromArray = new CandidateIndex(corpus, 5).newSet();
+        CandidateSet fromStore = new CandidateIndex(EquationStore.of(corpus, 5)).newSet();
+        long guess = Symbols.pack("3-1=2");
+        int pattern = FeedbackScorer.score(guess, corpus[1], 5);
+        fromArray.narrow(guess, pattern);
+        fromStore.narrow(guess, pattern);
+        assertTrue(Arrays.equals(fromArray.toArray(), fromStore.toArray()));
+        assertTrue(fromArray.contains(1));
+    }
+
+    private static long randomGuess(SplittableRandom random) {
+        long guess = Symbols.EMPTY_PACKED;
+        for (int i = 0; i < LENGTH; i++) {
+            guess = Symbols.with(guess, i, random.nextInt(Symbols.COUNT));
+        }
+        return guess;
+    }
+}
@@ -0,0 +1,91 @@
+package com.mobaijun.engine;
+
+import junit.framework.TestCase;
+
+/**
+ * Description: [ExpressionEvaluator tests]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 05:00]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ */
+public class ExpressionEvaluatorTest extends TestCase {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    public void testPrecedenceAndAssociativity() {
+        assertValue("2+3*4", 14, 1);
+        assertValue("8-3-2", 3, 1);
+        assertValue("8/4/2", 1, 1);
+        assertValue("2*3-8/4", 4, 1);
+    }
+
+    public void testExactFractions() {
+        assertValue("7/2", 7, 2);
+        assertValue("1/3*3", 1, 1);
+        assertValue("1-4/6", 1, 3);
+        assertValue("2-9/2", -5, 2);
+        assertFalse(evaluator.isInteger());
+        assertTrue(evaluator.isBalanced("7/2*2=7"));
+        // Truncating division would make these equal
+        assertFalse(evaluator.isBalanced("7/2=3"));
+        assertFalse(evaluator.isBalanced("1/3*3=0"));
+    }
+
+    public void testDivisionByZeroIsInvalid() {
+        assertFalse(evaluator.evaluate("5/0", 0, 3));
+        assertFalse(evaluator.evaluate("1+4/0*2", 0, 7));
+        assertFalse(evaluator.isBalanced("0/0=0"));
+        assertValue("0/5", 0, 1);
+    }
+
+    public void testOverflowIsInvalid() {
+        assertValue("999999999999999999", 999999999999999999L, 1);
+        assertFalse(evaluator.evaluate("9999999999999999999", 0, 19));
+        assertFalse(evaluator.evaluate("999999999*999999999*99", 0, 22));
+        assertFalse(evaluator.evaluate("999999999999999999+999999999999999999*9", 0, 39));
+    }
+
+    public void testLeadingZerosAreInvalid() {
+        assertValue("0", 0, 1);
+        assertValue("10+0", 10, 1);
+        assertFalse(evaluator.evaluate("05", 0, 2));
+        assertFalse(evaluator.evaluate("1+00", 0, 4));
+        assertFalse(evaluator.isBalanced("07=7"));
+    }
+
+    public void testUnarySignsAreInvalid() {
+        assertFalse(evaluator.evaluate("-3", 0, 2));
+        assertFalse(evaluator.evaluate("+3", 0, 2));
+        assertFalse(evaluator.evaluate("3*-1", 0, 4));
+        assertFalse(evaluator.evaluate("3+", 0, 2));
+        assertFalse(evaluator.evaluate("", 0, 0));
+        assertFalse(evaluator.isBalanced("1-2=-1"));
+    }
+
+    public void testBalanced() {
+        assertTrue(evaluator.isBalanced("1+2*3=7"));
+        assertTrue(evaluator.isBalanced("12/4=3"));
+        assertFalse(evaluator.isBalanced("1+2*3=9"));
+        assertFalse(evaluator.isBalanced("1+1=2=2"));
+        assertFalse(evaluator.isBalanced("1+1+2"));
+        assertFalse(evaluator.isBalanced("1+1=2a"));
+    }
+
+    public void testSlicesAndEncodingsAgree() {
+        String equation = "x6*4/3=8x";
+        char[] chars = equation.toCharArray();
+        byte[] bytes = equation.getBytes();
+        assertTrue(evaluator.isBalanced(chars, 1, 8));
+        assertTrue(evaluator.isBalanced(bytes, 1, 8));
+        assertFalse(evaluator.isBalanced(chars, 0, 8));
+        assertTrue(evaluator.evaluate(bytes, 1, 6));
+        assertEquals(8, evaluator.getNumerator());
+        assertEquals(1, evaluator.getDenominator());
+    }
+
+    private void assertValue(String expression, long numerator, long denominator) {
+        assertTrue(expression, evaluator.evaluate(expression, 0, expression.length()));
+        assertEquals(expression, numerator, evaluator.getNumerator());
+        assertEquals(expression, denominator, evaluator.getDenominator());
+    }
+}
@@ -0,0 +1,56 @@
+package com.mobaijun.engine;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import junit.framework.TestCase;
+
+/**
+ * Description: [FeedbackMatrix tests]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 05:40]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Builds the matrix of the generated 6-symbol corpus and checks that a solver reading it suggests
+ * the same guesses as one scoring the patterns.
+ */
+public class FeedbackMatrixTest extends TestCase {
+
+    private static final int LENGTH = 6;
+
+    private static final Duration NO_BUDGET = Duration.ofMinutes(1);
+
+    public void testSolverSuggestsTheSameWithTheMatrix() throws Exception {
+        List<String> equations = EquationGenerator.generate(LENGTH);
+        long[] corpus = new long[equations.size()];
+        for (int i = 0; i < corpus.length; i++) {
+            corpus[i] = Symbols.pack(equations.get(i));
+        }
+        EquationStore store = EquationStore.of(corpus, LENGTH);
+        FeedbackMatrix matrix = FeedbackMatrix.build(store, null);
+        assertTrue(matrix.matches(store));
+        Solver scoring = new Solver(store, null, NO_BUDGET, ForkJoinPool.commonPool());
+        Solver reading = new Solver(store, matrix, NO_BUDGET, ForkJoinPool.commonPool());
+        SplittableRandom random = new SplittableRandom(5);
+        for (int round = 0; round < 5; round++) {
+            int[] candidates = random.ints(3 + random.nextInt(200), 0, store.size()).sorted().distinct().toArray();
+            assertEquals(Arrays.toString(candidates), scoring.suggest(candidates), reading.suggest(candidates));
+        }
+    }
+
+    public void testMatrixOfAnotherCorpusIsRejected() throws Exception {
+        long[] corpus = {Symbols.pack("1+2=3"), Symbols.pack("4-1=3"), Symbols.pack("2*2=4")};
+        long[] other = {Symbols.pack("1+2=3"), Symbols.pack("2*2=4"), Symbols.pack("4-1=3")};
+        FeedbackMatrix matrix = FeedbackMatrix.build(corpus, corpus, 5, null);
+        assertTrue(matrix.matches(EquationStore.of(corpus, 5)));
+        assertFalse(matrix.matches(EquationStore.of(other, 5)));
+        try {
+            new Solver(EquationStore.of(other, 5), matrix, NO_BUDGET, ForkJoinPool.commonPool());
+            fail("A matrix of another corpus must be rejected");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.mobaijun.engine;
+
+import java.util.SplittableRandom;
+import junit.framework.TestCase;
+
+/**
+ * Description: [FeedbackScorer tests]
+ * Author: [mobaijun]
+ * Date: [2026/10/18 05:00]
+ * IntelliJ IDEA Version: [IntelliJ IDEA 2023.1.4]
+ * <p>
+ * Compares the packed scorer with a straightforward two-pass scorer on strings, with alphabets
+ * small enough that most guesses repeat symbols.
+ */
+public class FeedbackScorerTest extends TestCase {
+
+    public void testExactMatchIsSolved() {
+        assertEquals(FeedbackScorer.SOLVED, score("1+2+3=6", "1+2+3=6"));
+    }
+
+    public void testDuplicateSymbols() {
+        // Only one unmatched 1 is left after the greens, so the second guessed 1 is grey
+        assertStates("11+1=13", "1+12=13", 0, 1, 1, 2, 0, 0, 0);
+        // Greens are matched first even when a yellow comes earlier
+        assertStates("2+2=4", "1+2=3", 2, 0, 0, 0, 2);
+        assertStates("9*9=81", "9+9=18", 0, 2, 0, 0, 1, 1);
+    }
+
+    public void testMatchesNaiveScorer() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int length = 1; length <= 12; length++) {
+            for (int round = 0; round < 2000; round++) {
+                String alphabet = round % 2 == 0 ? "12=" : "0123456789+-*/=";
+                String guess = random(random, alphabet, length);
+                String answer = random(random, alphabet, length);
+                assertEquals(guess + " vs " + answer, naive(guess, answer), score(guess, answer));
+            }
+        }
+    }
+
+    public void testPatternHelpers() {
+        int pattern = score("11+1=13", "1+12=13");
+        int[] states = new int[7];
+        FeedbackScorer.unpack(pattern, 7, states);
+        for (int i = 0; i < 7; i++) {
+            assertEquals(states[i], FeedbackScorer.stateAt(pattern, i));
+        }
+        assertEquals(2187, FeedbackScorer.patternCount(7));
+    }
+
+    private static int score(String guess, String answer) {
+        return FeedbackScorer.score(Symbols.pack(guess), Symbols.pack(answer), guess.length());
+    }
+
+    private static void assertStates(String guess, String answer, int... expected) {
+        int[] states = new int[guess.length()];
+        FeedbackScorer.unpack(score(guess, answer), states.length, states);
+        for (int i = 0; i < states.length; i++) {
+            assertEquals(guess + " vs " + answer + " at " + i, expected[i], states[i]);
+        }
+    }
+
+    /**
+     * Greens first, then yellows left to right while unmatched copies remain.
+     */
+    private static int naive(String guess, String answer) {
+        int length = guess.length();
+        int[] states = new int[length];
+        boolean[] used = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            states[i] = FeedbackScorer.GREY;
+            if (guess.charAt(i) == answer.charAt(i)) {
+                states[i] = FeedbackScorer.GREEN;
+                used[i] = true;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            if (states[i] == FeedbackScorer.GREEN) {
+                continue;
+            }
+            for (int j = 0; j < length; j++) {
+                if (!used[j] && answer.charAt(j) == guess.charAt(i)) {
+                    used[j] = true;
+                    states[i] = FeedbackScorer.YELLOW;
+                    break;
+                }
+            }
+        }
+        int pattern = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            pattern = pattern * 3 + states[i];
+        }
+        return pattern;
+    }
+
+    private static String random(SplittableRandom random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+}